@@ -0,0 +1,183 @@
+package dev.nxms.worldclear.bench;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataContainer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Minimal proxy based stand-ins for the Bukkit API used by the benchmarks.
+ * Only the methods the clear path calls return meaningful values.
+ */
+public final class Mocks {
+
+    private static final Logger LOGGER = Logger.getLogger("WorldClearBenchmark");
+
+    private static final PersistentDataContainer EMPTY_CONTAINER = proxy(PersistentDataContainer.class,
+            (proxy, method, args) -> switch (method.getName()) {
+                case "isEmpty" -> true;
+                case "getKeys" -> Set.of();
+                default -> defaultValue(method);
+            });
+
+    private static final Material[] MATERIALS = {
+            Material.COBBLESTONE, Material.DIRT, Material.ROTTEN_FLESH, Material.STONE, Material.DIAMOND
+    };
+
+    private Mocks() {
+    }
+
+    /**
+     * Installs a server stand-in so static {@link Bukkit} calls don't fail.
+     */
+    public static synchronized void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+
+        Server server = proxy(Server.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getLogger" -> LOGGER;
+            case "getName", "getVersion", "getBukkitVersion" -> "Benchmark";
+            case "isOwnedByCurrentRegion", "isPrimaryThread" -> true;
+            default -> defaultValue(method);
+        });
+        Bukkit.setServer(server);
+    }
+
+    /**
+     * Creates a world stand-in where every chunk counts as loaded.
+     *
+     * @param name world name
+     * @return mocked world
+     */
+    public static World world(String name) {
+        UUID id = UUID.nameUUIDFromBytes(name.getBytes());
+        return proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "getUID" -> id;
+            case "isChunkLoaded" -> true;
+            default -> defaultValue(proxy, method, args);
+        });
+    }
+
+    /**
+     * Creates a dropped item stand-in.
+     *
+     * @param world world of the item
+     * @param x block x coordinate
+     * @param z block z coordinate
+     * @param index used to vary material and age between items
+     * @return mocked item
+     */
+    public static MockEntity item(World world, double x, double z, int index) {
+        ItemStack stack = new ItemStack(MATERIALS[index % MATERIALS.length], 1 + index % 64);
+        return new MockEntity(EntityType.ITEM, new Location(world, x, 64, z), stack, index % 6000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(Mocks.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "Mock" + method.getDeclaringClass().getSimpleName();
+            default -> defaultValue(method);
+        };
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Mutable entity state behind a proxied {@link Item}.
+     * Removed entities can be revived so the same set is reused between invocations.
+     */
+    public static final class MockEntity implements InvocationHandler {
+
+        private final UUID id = UUID.randomUUID();
+        private final EntityType type;
+        private final Location location;
+        private final ItemStack stack;
+        private final int ticksLived;
+        private final Item entity;
+        private boolean valid = true;
+
+        private MockEntity(EntityType type, Location location, ItemStack stack, int ticksLived) {
+            this.type = type;
+            this.location = location;
+            this.stack = stack;
+            this.ticksLived = ticksLived;
+            this.entity = proxy(Item.class, this);
+        }
+
+        public Item entity() {
+            return entity;
+        }
+
+        public void revive() {
+            valid = true;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "getUniqueId" -> id;
+                case "getType" -> type;
+                case "getLocation" -> location.clone();
+                case "getWorld" -> location.getWorld();
+                case "getItemStack" -> stack;
+                case "getTicksLived" -> ticksLived;
+                case "isValid" -> valid;
+                case "isDead" -> !valid;
+                case "isEmpty" -> true;
+                case "getPersistentDataContainer" -> EMPTY_CONTAINER;
+                case "remove" -> {
+                    valid = false;
+                    yield null;
+                }
+                default -> defaultValue(proxy, method, args);
+            };
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.nxms.worldclear.filter;
+
+import dev.nxms.worldclear.bench.Mocks;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures the cost of testing entities against a compiled {@link ClearFilter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClearFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    @Param({"default", "rules"})
+    public String filter;
+
+    private ClearFilter compiled;
+    private Item[] items;
+
+    @Setup
+    public void setup() {
+        Mocks.installServer();
+
+        String yaml = filter.equals("default") ? "entity-types: [ITEM]\n" : """
+                entity-types: [ITEM, ARROW, EXPERIENCE_ORB, FALLING_BLOCK]
+                protected-materials: [DIAMOND, STONE]
+                min-age-ticks: 200
+                skip-named: true
+                protected-tags: [benchmark:protected, benchmark:owned]
+                """;
+        compiled = ClearFilter.compile(YamlConfiguration.loadConfiguration(new StringReader(yaml)),
+                Logger.getAnonymousLogger());
+
+        World world = Mocks.world("benchmark");
+        items = new Item[entities];
+        for (int i = 0; i < entities; i++) {
+            items[i] = Mocks.item(world, i % 512, i / 512, i).entity();
+        }
+    }
+
+    @Benchmark
+    public int testAll() {
+        int matched = 0;
+        for (Item item : items) {
+            if (compiled.test(item)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
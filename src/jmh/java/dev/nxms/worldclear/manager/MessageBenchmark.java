@@ -0,0 +1,72 @@
+package dev.nxms.worldclear.manager;
+
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures message formatting as done for every countdown second and command reply.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageBenchmark {
+
+    private static final Map<String, String> TEMPLATES = Map.of(
+            "static", "&8• &7Auto clear is currently &cdisabled&7.",
+            "prefix", "{prefix-success} &aConfiguration has been reloaded.",
+            "countdown", "{prefix-warning} &7World will be cleared in &e{seconds}s&7!",
+            "multiline", "{prefix-error} &cInvalid format!\n{prefix-hint} &7Example of use: &e{example} &7or &e{other}"
+    );
+
+    @Param({"static", "prefix", "countdown", "multiline"})
+    public String template;
+
+    private String raw;
+    private Map<String, String> prefixes;
+    private MessageTemplate compiled;
+    private int seconds;
+
+    @Setup
+    public void setup() {
+        raw = TEMPLATES.get(template);
+        prefixes = new HashMap<>();
+        prefixes.put("prefix-error", "&8[&c&l❌&r&8]&r");
+        prefixes.put("prefix-success", "&8[&a&l✔&r&8]&r");
+        prefixes.put("prefix-warning", "&8[&e&l!&r&8]&r");
+        prefixes.put("prefix-hint", "&8[&e&l?&r&8]&r");
+        compiled = MessageTemplate.compile(raw, prefixes);
+    }
+
+    @Benchmark
+    public MessageTemplate compile() {
+        // Done once per message on reload
+        return MessageTemplate.compile(raw, prefixes);
+    }
+
+    @Benchmark
+    public String format() {
+        return compiled.format("seconds", String.valueOf(seconds++ % 60), "example", "1d2h30m");
+    }
+
+    @Benchmark
+    public Component component() {
+        return compiled.component("seconds", String.valueOf(seconds++ % 60), "example", "1d2h30m");
+    }
+}
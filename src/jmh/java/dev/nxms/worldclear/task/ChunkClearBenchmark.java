@@ -0,0 +1,88 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.bench.Mocks;
+import dev.nxms.worldclear.filter.ClearFilter;
+import dev.nxms.worldclear.metrics.ClearMetrics;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures a full clear of a synthetic world through {@link ChunkClearer},
+ * i.e. the work {@link SweepTask} spreads over several ticks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkClearBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    @Param({"16", "256"})
+    public int itemsPerChunk;
+
+    private World world;
+    private ItemTracker tracker;
+    private ChunkClearer clearer;
+    private Mocks.MockEntity[] items;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Mocks.installServer();
+        world = Mocks.world("benchmark");
+        tracker = new ItemTracker();
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(new StringReader(
+                "entity-types: [ITEM]\nprotected-materials: [DIAMOND]\nmin-age-ticks: 100\n"));
+        clearer = new ChunkClearer(tracker, null, ClearFilter.compile(config, Logger.getAnonymousLogger()),
+                new ClearMetrics().world("benchmark"));
+
+        // Spread the items over a square of chunks
+        int chunks = Math.max(1, entities / itemsPerChunk);
+        int side = (int) Math.ceil(Math.sqrt(chunks));
+        items = new Mocks.MockEntity[entities];
+        for (int i = 0; i < entities; i++) {
+            int chunk = i % chunks;
+            double x = (chunk % side) * 16 + (i % 16) + 0.5;
+            double z = (chunk / side) * 16 + ((i / 16) % 16) + 0.5;
+            items[i] = Mocks.item(world, x, z, i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        for (Mocks.MockEntity item : items) {
+            item.revive();
+            tracker.track(item.entity());
+        }
+    }
+
+    @Benchmark
+    public int clearWorld() {
+        int removed = 0;
+        for (long chunkKey : clearer.getChunkKeys(world)) {
+            removed += clearer.clearChunk(world, chunkKey, null);
+        }
+        return removed;
+    }
+}
@@ -1,40 +1,113 @@
 package dev.nxms.worldclear;
 
+import dev.nxms.worldclear.cluster.ClusterCoordinator;
+import dev.nxms.worldclear.cluster.ClusterTransport;
+import dev.nxms.worldclear.cluster.LocalTransport;
+import dev.nxms.worldclear.cluster.PluginMessageTransport;
 import dev.nxms.worldclear.command.WorldClearCommand;
 import dev.nxms.worldclear.command.WorldClearTabCompleter;
 import dev.nxms.worldclear.manager.ClearManager;
 import dev.nxms.worldclear.manager.ConfigManager;
+import dev.nxms.worldclear.manager.MessageCatalogs;
 import dev.nxms.worldclear.manager.MessageManager;
+import dev.nxms.worldclear.manager.NotifyPreferences;
+import dev.nxms.worldclear.metrics.ClearMetrics;
+import dev.nxms.worldclear.metrics.PrometheusExporter;
+import dev.nxms.worldclear.recovery.LostAndFound;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.scheduler.TimingWheel;
+import dev.nxms.worldclear.task.TickMonitor;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import dev.nxms.worldclear.tracker.ItemTrackerListener;
+import dev.nxms.worldclear.tracker.LootProtection;
+import dev.nxms.worldclear.tracker.LootProtectionListener;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Main plugin class for WorldClear.
  * Handles initialization and provides access to all managers.
  */
 public class WorldClear extends JavaPlugin {
 
+    private static final String METRICS_MBEAN = "dev.nxms.worldclear:type=ClearMetrics";
+    private static final int LOOT_CLEANUP_SLOTS = 256;
+
     private static WorldClear instance;
     private ConfigManager configManager;
     private MessageManager messageManager;
+    private NotifyPreferences notifyPreferences;
     private ClearManager clearManager;
+    private ItemTracker itemTracker;
+    private LootProtection lootProtection;
+    private LostAndFound lostAndFound;
+    private ClusterCoordinator clusterCoordinator;
+    private TickMonitor tickMonitor;
+    private TaskScheduler taskScheduler;
+    private TimingWheel timingWheel;
+    private ClearMetrics metrics;
+    private PrometheusExporter prometheusExporter;
+    private ThreadPoolExecutor workerPool;
 
     @Override
     public void onEnable() {
         instance = this;
 
+        // Pick the Folia or Bukkit scheduler before anything schedules tasks
+        this.taskScheduler = TaskScheduler.create(this);
+        this.timingWheel = new TimingWheel(getLogger());
+        timingWheel.start(taskScheduler);
+
         // Initialize managers in order of dependency
         this.configManager = new ConfigManager(this);
         this.messageManager = new MessageManager(this);
+        this.notifyPreferences = new NotifyPreferences(getDataFolder().toPath().resolve("notify-muted.txt"), getLogger());
+        notifyPreferences.load();
+        this.workerPool = createWorkerPool(configManager.getWorkerThreads());
+        this.itemTracker = new ItemTracker();
+        this.lootProtection = new LootProtection();
+        configureLootProtection();
+        this.lostAndFound = new LostAndFound(getDataFolder().toPath().resolve("lost-and-found"), getLogger());
+        configureLostAndFound();
+        this.metrics = new ClearMetrics();
+        this.prometheusExporter = new PrometheusExporter(metrics);
+        startCluster();
+        this.tickMonitor = new TickMonitor(this);
         this.clearManager = new ClearManager(this);
 
-        // Register commands
+        // Index items that are already loaded (e.g. after a plugin reload)
+        // Folia doesn't allow reading entities across regions, chunks are indexed as they load
+        if (!taskScheduler.isRegionized()) {
+            itemTracker.rebuild();
+        }
+
+        // Register commands and listeners
         registerCommands();
+        registerListeners();
 
         // Start auto clear if enabled in config
         if (configManager.isAutoClearEnabled()) {
             clearManager.startAutoClear();
         }
+        clearManager.startHotspotScan();
+        clearManager.startConsolidation();
+        startMetrics();
+
+        // Drop expired loot protection entries a few slots at a time
+        timingWheel.schedule(() -> lootProtection.cleanup(LOOT_CLEANUP_SLOTS), 20L, 20L);
+        timingWheel.schedule(tickMonitor, 20L, 20L);
 
         getLogger().info("WorldClear has been enabled!");
     }
@@ -43,7 +116,29 @@ public class WorldClear extends JavaPlugin {
     public void onDisable() {
         // Stop all tasks
         if (clearManager != null) {
+            clearManager.saveState(true);
             clearManager.stopAutoClear();
+            clearManager.stopHotspotScan();
+            clearManager.stopConsolidation();
+            clearManager.stopSweep();
+            clearManager.stopDeepClean();
+        }
+        if (timingWheel != null) {
+            timingWheel.stop();
+        }
+        stopMetrics();
+        stopCluster();
+        if (lostAndFound != null) {
+            lostAndFound.close();
+        }
+        if (notifyPreferences != null) {
+            notifyPreferences.flush();
+        }
+        if (configManager != null) {
+            configManager.flush();
+        }
+        if (workerPool != null) {
+            workerPool.shutdownNow();
         }
 
         getLogger().info("WorldClear has been disabled!");
@@ -61,21 +156,185 @@ public class WorldClear extends JavaPlugin {
         }
     }
 
+    /**
+     * Registers event listeners.
+     */
+    private void registerListeners() {
+        getServer().getPluginManager().registerEvents(new ItemTrackerListener(itemTracker), this);
+        getServer().getPluginManager().registerEvents(new LootProtectionListener(lootProtection), this);
+        getServer().getPluginManager().registerEvents(tickMonitor, this);
+    }
+
+    /**
+     * Applies the loot protection grace periods.
+     */
+    private void configureLootProtection() {
+        if (configManager.isLootProtectionEnabled()) {
+            lootProtection.configure(configManager.getLootProtectionDeathSeconds(),
+                    configManager.getLootProtectionThrownSeconds());
+        } else {
+            lootProtection.configure(0, 0);
+        }
+    }
+
+    /**
+     * Starts coordinating clears with the other servers of the network if enabled.
+     */
+    private void startCluster() {
+        if (!configManager.isClusterEnabled()) {
+            return;
+        }
+
+        ClusterTransport transport = configManager.getClusterTransport().equals("local")
+                ? new LocalTransport(getName())
+                : new PluginMessageTransport(this);
+        clusterCoordinator = new ClusterCoordinator(this, transport, configManager.getClusterNodeId(),
+                configManager.getClusterNodeIndex(), configManager.getClusterNodes(),
+                configManager.getClusterNodeStagger());
+        clusterCoordinator.start();
+    }
+
+    /**
+     * Stops coordinating clears with the network.
+     */
+    private void stopCluster() {
+        if (clusterCoordinator != null) {
+            clusterCoordinator.stop();
+            clusterCoordinator = null;
+        }
+    }
+
+    /**
+     * Applies the lost and found segment size and retention limits.
+     */
+    private void configureLostAndFound() {
+        lostAndFound.configure(configManager.getLostAndFoundSegmentBytes(),
+                configManager.getLostAndFoundMaxBytes(), configManager.getLostAndFoundMaxAgeSeconds() * 1000L);
+    }
+
+    /**
+     * Creates the daemon threads that run work off the server threads.
+     *
+     * @param threads number of threads
+     * @return worker pool
+     */
+    private ThreadPoolExecutor createWorkerPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "WorldClear-Worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Changes the number of worker threads. Queued and running work is kept,
+     * surplus threads stop once they are idle.
+     *
+     * @param threads number of threads
+     */
+    private void resizeWorkerPool(int threads) {
+        // The core size may never exceed the maximum, so the order depends on the direction
+        if (threads > workerPool.getMaximumPoolSize()) {
+            workerPool.setMaximumPoolSize(threads);
+            workerPool.setCorePoolSize(threads);
+        } else {
+            workerPool.setCorePoolSize(threads);
+            workerPool.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Registers the metrics MBean and starts the Prometheus endpoint if enabled.
+     */
+    private void startMetrics() {
+        if (configManager.isMetricsJmxEnabled()) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(METRICS_MBEAN));
+            } catch (JMException e) {
+                getLogger().warning("Failed to register metrics MBean: " + e.getMessage());
+            }
+        }
+
+        if (configManager.isPrometheusEnabled()) {
+            String host = configManager.getPrometheusHost();
+            int port = configManager.getPrometheusPort();
+            try {
+                prometheusExporter.start(host, port);
+                getLogger().info("Serving metrics on http://" + host + ":" + port + "/metrics");
+            } catch (IOException e) {
+                getLogger().warning("Failed to start metrics endpoint on " + host + ":" + port + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Unregisters the metrics MBean and stops the Prometheus endpoint.
+     */
+    private void stopMetrics() {
+        if (prometheusExporter != null) {
+            prometheusExporter.stop();
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(METRICS_MBEAN);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            getLogger().warning("Failed to unregister metrics MBean: " + e.getMessage());
+        }
+    }
+
     /**
      * Reloads all plugin configurations and messages.
+     * The files are read and parsed on the worker pool, the result is applied on the global thread.
+     * A file that fails to parse leaves the current settings in place.
      *
-     * @return true if reload was successful
+     * @return future completed with true if reload was successful, on the global thread
      */
-    public boolean reload() {
+    public CompletableFuture<Boolean> reload() {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        workerPool.execute(() -> {
+            ConfigManager.Snapshot config;
+            MessageCatalogs messages;
+            try {
+                config = configManager.load();
+                messages = MessageCatalogs.load(this, config.getLanguage(), config.isPerPlayerLanguage());
+            } catch (Exception e) {
+                getLogger().severe("Failed to reload configuration: " + e.getMessage());
+                taskScheduler.runGlobal(() -> result.complete(false));
+                return;
+            }
+            taskScheduler.runGlobal(() -> result.complete(apply(config, messages)));
+        });
+        return result;
+    }
+
+    /**
+     * Swaps in a reloaded configuration and restarts everything that depends on it.
+     */
+    private boolean apply(ConfigManager.Snapshot config, MessageCatalogs messages) {
         try {
-            configManager.reload();
-            messageManager.reload();
+            configManager.apply(config);
+            messageManager.apply(messages);
+            resizeWorkerPool(configManager.getWorkerThreads());
+            configureLootProtection();
+            configureLostAndFound();
+            stopCluster();
+            startCluster();
 
-            // Restart auto clear with new settings if enabled
-            clearManager.stopAutoClear();
+            // Rebuild the schedules and restart auto clear with new settings if enabled
+            clearManager.loadSchedules();
             if (configManager.isAutoClearEnabled()) {
                 clearManager.startAutoClear();
             }
+            clearManager.startHotspotScan();
+            clearManager.startConsolidation();
+            stopMetrics();
+            startMetrics();
 
             return true;
         } catch (Exception e) {
@@ -96,7 +355,52 @@ public class WorldClear extends JavaPlugin {
         return messageManager;
     }
 
+    public NotifyPreferences getNotifyPreferences() {
+        return notifyPreferences;
+    }
+
     public ClearManager getClearManager() {
         return clearManager;
     }
+
+    public ItemTracker getItemTracker() {
+        return itemTracker;
+    }
+
+    public LootProtection getLootProtection() {
+        return lootProtection;
+    }
+
+    public LostAndFound getLostAndFound() {
+        return lostAndFound;
+    }
+
+    /**
+     * Gets the cluster coordinator.
+     *
+     * @return coordinator, or null if cluster coordination is disabled
+     */
+    public ClusterCoordinator getClusterCoordinator() {
+        return clusterCoordinator;
+    }
+
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    public ClearMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ExecutorService getWorkerPool() {
+        return workerPool;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package dev.nxms.worldclear.cluster;
+
+import dev.nxms.worldclear.WorldClear;
+
+import java.io.IOException;
+
+/**
+ * Coordinates clears across the servers of a network.
+ * Schedules are aligned to the epoch, so every server computes the same clear times
+ * from its clock without exchanging state. Each server and schedule gets its own slot
+ * of a few seconds, so no two servers clear at the same time.
+ * Network clears triggered on one server are passed on through the {@link ClusterTransport}.
+ */
+public class ClusterCoordinator {
+
+    private final WorldClear plugin;
+    private final ClusterTransport transport;
+    private final String nodeId;
+    private final int nodeIndex;
+    private final int nodes;
+    private final long nodeStaggerMillis;
+
+    // Stagger between schedule slots, shrunk if the slots don't fit into the shortest interval
+    private volatile long slotStaggerMillis;
+
+    public ClusterCoordinator(WorldClear plugin, ClusterTransport transport, String nodeId,
+                              int nodeIndex, int nodes, long nodeStaggerSeconds) {
+        this.plugin = plugin;
+        this.transport = transport;
+        this.nodeId = nodeId;
+        this.nodeIndex = nodeIndex;
+        this.nodes = nodes;
+        this.nodeStaggerMillis = nodeStaggerSeconds * 1000L;
+        this.slotStaggerMillis = nodeStaggerMillis;
+    }
+
+    /**
+     * Starts receiving network clears.
+     */
+    public void start() {
+        transport.open(this::receive);
+        plugin.getLogger().info("Cluster coordination started as " + nodeId + " (" + (nodeIndex + 1)
+                + " of " + nodes + ")");
+    }
+
+    /**
+     * Stops receiving network clears.
+     */
+    public void stop() {
+        transport.close();
+    }
+
+    /**
+     * Fits the slots of every schedule and server into the shortest schedule interval.
+     * Offsets wrap around the interval, so slots past its end would land on earlier ones;
+     * the stagger is shrunk with a warning until they fit.
+     *
+     * @param schedules number of schedules
+     * @param shortestIntervalSeconds shortest interval of any schedule
+     */
+    public void fitSlots(int schedules, long shortestIntervalSeconds) {
+        long slots = (long) schedules * nodes;
+        long fitted = fitStagger(nodeStaggerMillis, slots, shortestIntervalSeconds * 1000L);
+        if (fitted != nodeStaggerMillis) {
+            plugin.getLogger().warning(schedules + " schedules on " + nodes + " servers need " + slots
+                    + " slots of " + nodeStaggerMillis / 1000L + " seconds, more than the shortest interval of "
+                    + shortestIntervalSeconds + " seconds. Using a stagger of " + fitted / 1000L + " seconds.");
+            if (slots * fitted > shortestIntervalSeconds * 1000L) {
+                plugin.getLogger().warning("The interval is too short to give every slot its own second, "
+                        + "some servers will clear at the same time.");
+            }
+        }
+        slotStaggerMillis = fitted;
+    }
+
+    /**
+     * Gets the largest stagger up to the configured one that fits the slots into the interval.
+     *
+     * @param staggerMillis configured stagger
+     * @param slots number of slots
+     * @param intervalMillis shortest interval
+     * @return stagger in milliseconds, whole seconds and at least one
+     */
+    static long fitStagger(long staggerMillis, long slots, long intervalMillis) {
+        if (slots * staggerMillis <= intervalMillis) {
+            return staggerMillis;
+        }
+        return Math.max(1L, intervalMillis / slots / 1000L) * 1000L;
+    }
+
+    /**
+     * Gets the offset of a schedule's clears on this server from the aligned clock.
+     * Slots are ordered by schedule first, then by server.
+     *
+     * @param scheduleIndex position of the schedule in the schedule list
+     * @return offset in seconds
+     */
+    public long getSlotOffsetSeconds(int scheduleIndex) {
+        return ((long) scheduleIndex * nodes + nodeIndex) * slotStaggerMillis / 1000L;
+    }
+
+    /**
+     * Gets the next epoch-aligned clear time that leaves room for a full countdown.
+     *
+     * @param intervalMillis clear interval
+     * @param offsetMillis offset of the clear from the interval boundaries
+     * @param countdownMillis length of the countdown
+     * @param now current epoch milliseconds
+     * @return epoch milliseconds of the next clear
+     */
+    public long getNextClearTime(long intervalMillis, long offsetMillis, long countdownMillis, long now) {
+        long phase = Math.floorMod(offsetMillis, intervalMillis);
+        return (Math.floorDiv(now + countdownMillis - phase, intervalMillis) + 1) * intervalMillis + phase;
+    }
+
+    /**
+     * Starts a clear on every server of the network, each in its own slot after the lead time.
+     *
+     * @param leadMillis time until the first server starts its countdown
+     * @return milliseconds until this server starts its countdown
+     */
+    public long triggerNetworkClear(long leadMillis) {
+        long startAt = System.currentTimeMillis() + leadMillis;
+        transport.send(new ClusterMessage(ClusterMessage.Type.CLEAR, nodeId, startAt).encode());
+        return scheduleClear(startAt);
+    }
+
+    private void receive(byte[] payload) {
+        ClusterMessage message;
+        try {
+            message = ClusterMessage.decode(payload);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Ignoring malformed cluster message: " + e.getMessage());
+            return;
+        }
+
+        if (message == null || message.node().equals(nodeId)) {
+            return;
+        }
+
+        if (message.type() == ClusterMessage.Type.CLEAR) {
+            plugin.getLogger().info("Network clear requested by " + message.node());
+            plugin.getTaskScheduler().runGlobal(() -> scheduleClear(message.startAt()));
+        }
+    }
+
+    /**
+     * Starts the countdown of a global clear in this server's slot after the start time.
+     */
+    private long scheduleClear(long startAt) {
+        long delayMillis = Math.max(0, startAt + nodeIndex * nodeStaggerMillis - System.currentTimeMillis());
+        plugin.getTimingWheel().schedule(() -> plugin.getClearManager().startCountdown(), delayMillis / 50L, 0L);
+        return delayMillis;
+    }
+}
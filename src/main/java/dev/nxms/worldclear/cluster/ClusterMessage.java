@@ -0,0 +1,65 @@
+package dev.nxms.worldclear.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Message exchanged between the servers of a network.
+ *
+ * @param type what the message asks for
+ * @param node id of the sending server
+ * @param startAt epoch milliseconds the first server starts its countdown at
+ */
+public record ClusterMessage(Type type, String node, long startAt) {
+
+    private static final int VERSION = 1;
+
+    /**
+     * Encodes this message for a transport.
+     *
+     * @return payload bytes
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(type.ordinal());
+            out.writeUTF(node);
+            out.writeLong(startAt);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a message received from a transport.
+     *
+     * @param payload payload bytes
+     * @return message, or null if it was sent by an incompatible version
+     * @throws IOException if the payload is malformed
+     */
+    public static ClusterMessage decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readUnsignedByte() != VERSION) {
+                return null;
+            }
+            int type = in.readUnsignedByte();
+            if (type >= Type.values().length) {
+                return null;
+            }
+            return new ClusterMessage(Type.values()[type], in.readUTF(), in.readLong());
+        }
+    }
+
+    /**
+     * Kinds of cluster messages.
+     */
+    public enum Type {
+        // Every server clears, each at its own slot after the start time
+        CLEAR
+    }
+}
@@ -0,0 +1,28 @@
+package dev.nxms.worldclear.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link ClusterMessage}s between the servers of a network.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Starts delivering messages from other servers.
+     *
+     * @param receiver receives the payload of every message, on any thread
+     */
+    void open(Consumer<byte[]> receiver);
+
+    /**
+     * Sends a message to every other server.
+     *
+     * @param payload encoded message
+     */
+    void send(byte[] payload);
+
+    /**
+     * Stops sending and receiving messages.
+     */
+    void close();
+}
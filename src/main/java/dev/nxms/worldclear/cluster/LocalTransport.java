@@ -0,0 +1,43 @@
+package dev.nxms.worldclear.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Transport between coordinators in the same JVM, grouped by network name.
+ * Stands in for the proxy when running several coordinators in one process, e.g. in tests.
+ */
+public class LocalTransport implements ClusterTransport {
+
+    private static final Map<String, Map<LocalTransport, Consumer<byte[]>>> NETWORKS = new ConcurrentHashMap<>();
+
+    private final String network;
+
+    public LocalTransport(String network) {
+        this.network = network;
+    }
+
+    @Override
+    public void open(Consumer<byte[]> receiver) {
+        NETWORKS.computeIfAbsent(network, name -> new ConcurrentHashMap<>()).put(this, receiver);
+    }
+
+    @Override
+    public void send(byte[] payload) {
+        Map<LocalTransport, Consumer<byte[]>> members = NETWORKS.getOrDefault(network, Map.of());
+        members.forEach((member, receiver) -> {
+            if (member != this) {
+                receiver.accept(payload.clone());
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        Map<LocalTransport, Consumer<byte[]>> members = NETWORKS.get(network);
+        if (members != null) {
+            members.remove(this);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dev.nxms.worldclear.cluster;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Transport over the BungeeCord plugin messaging channel, which Velocity supports as well.
+ * Messages are forwarded by the proxy to every other server. Plugin messages travel
+ * through a player connection, so messages sent while nobody is online wait for the next join.
+ */
+public class PluginMessageTransport implements ClusterTransport, PluginMessageListener, Listener {
+
+    private static final String CHANNEL = "BungeeCord";
+    private static final String SUB_CHANNEL = "WorldClear";
+
+    // Messages kept while no player is online to carry them
+    private static final int MAX_QUEUED = 16;
+
+    private final Plugin plugin;
+    private final Deque<byte[]> queued = new ArrayDeque<>();
+    private Consumer<byte[]> receiver;
+
+    public PluginMessageTransport(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void open(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        Bukkit.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+        Bukkit.getServer().getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+        Bukkit.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    @Override
+    public void send(byte[] payload) {
+        byte[] message = forward(payload);
+        synchronized (queued) {
+            Player carrier = Bukkit.getOnlinePlayers().stream().findFirst().orElse(null);
+            if (carrier != null) {
+                carrier.sendPluginMessage(plugin, CHANNEL, message);
+                return;
+            }
+
+            if (queued.size() >= MAX_QUEUED) {
+                queued.removeFirst();
+            }
+            queued.addLast(message);
+        }
+    }
+
+    @Override
+    public void close() {
+        Bukkit.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL, this);
+        Bukkit.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
+        HandlerList.unregisterAll(this);
+        synchronized (queued) {
+            queued.clear();
+        }
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        synchronized (queued) {
+            byte[] message;
+            while ((message = queued.pollFirst()) != null) {
+                event.getPlayer().sendPluginMessage(plugin, CHANNEL, message);
+            }
+        }
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (!CHANNEL.equals(channel)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            if (!SUB_CHANNEL.equals(in.readUTF())) {
+                return;
+            }
+            byte[] payload = new byte[in.readUnsignedShort()];
+            in.readFully(payload);
+            receiver.accept(payload);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Ignoring malformed cluster message: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wraps a payload in a BungeeCord Forward message to all servers.
+     */
+    private static byte[] forward(byte[] payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("Forward");
+            out.writeUTF("ALL");
+            out.writeUTF(SUB_CHANNEL);
+            out.writeShort(payload.length);
+            out.write(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,16 +1,33 @@
 package dev.nxms.worldclear.command;
 
 import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.cluster.ClusterCoordinator;
 import dev.nxms.worldclear.manager.ClearManager;
+import dev.nxms.worldclear.manager.ClearSchedule;
+import dev.nxms.worldclear.deepclean.DeepCleanJob;
 import dev.nxms.worldclear.manager.ConfigManager;
 import dev.nxms.worldclear.manager.MessageManager;
+import dev.nxms.worldclear.manager.NotifyPreferences;
+import dev.nxms.worldclear.manager.ScheduleProfile;
+import dev.nxms.worldclear.metrics.ClearMetrics;
+import dev.nxms.worldclear.recovery.LostAndFound;
+import dev.nxms.worldclear.recovery.LostBatch;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.logging.Level;
 
 /**
  * Handles all /worldclear command executions.
@@ -18,6 +35,12 @@ import java.util.Map;
  */
 public class WorldClearCommand implements CommandExecutor {
 
+    // Number of materials listed by /worldclear stats
+    private static final int STATS_TOP_MATERIALS = 5;
+
+    // Number of clears listed per page by /worldclear recover
+    private static final int RECOVER_PAGE_SIZE = 8;
+
     private final WorldClear plugin;
     private final ConfigManager configManager;
     private final MessageManager messageManager;
@@ -49,12 +72,16 @@ public class WorldClearCommand implements CommandExecutor {
         String subCommand = args[0].toLowerCase();
 
         switch (subCommand) {
-            case "clear" -> handleClear(sender);
+            case "clear" -> handleClear(sender, args);
             case "on" -> handleOn(sender);
             case "off" -> handleOff(sender);
             case "reload" -> handleReload(sender);
             case "set" -> handleSet(sender, args);
             case "info" -> handleInfo(sender);
+            case "stats" -> handleStats(sender);
+            case "recover" -> handleRecover(sender, args);
+            case "deepclean" -> handleDeepClean(sender, args);
+            case "notify" -> handleNotify(sender, args);
             default -> {
                 messageManager.send(sender, "unknown-command");
                 messageManager.send(sender, "usage");
@@ -66,13 +93,31 @@ public class WorldClearCommand implements CommandExecutor {
 
     /**
      * Handles /worldclear clear command.
+     * With the network argument every server of the cluster clears, each in its own slot.
      */
-    private void handleClear(CommandSender sender) {
+    private void handleClear(CommandSender sender, String[] args) {
         if (!sender.hasPermission("worldclear.clear")) {
             messageManager.send(sender, "no-permission");
             return;
         }
 
+        if (args.length >= 2 && args[1].equalsIgnoreCase("network")) {
+            if (!sender.hasPermission("worldclear.clear.network")) {
+                messageManager.send(sender, "no-permission");
+                return;
+            }
+
+            ClusterCoordinator cluster = plugin.getClusterCoordinator();
+            if (cluster == null) {
+                messageManager.send(sender, "cluster-disabled");
+                return;
+            }
+
+            long delayMillis = cluster.triggerNetworkClear(configManager.getClusterNetworkLead() * 1000L);
+            messageManager.send(sender, "clear-network", "seconds", String.valueOf((delayMillis + 999) / 1000));
+            return;
+        }
+
         clearManager.executeClearWithCountdown();
     }
 
@@ -82,15 +127,254 @@ public class WorldClearCommand implements CommandExecutor {
             return;
         }
 
-        if (configManager.isAutoClearEnabled()) {
+        if (configManager.isAutoClearEnabled() && clearManager.isTrickleRunning()) {
+            messageManager.send(sender, "status-trickle", "age",
+                    configManager.formatTime(configManager.getTrickleMaxAgeTicks() / 20L));
+        } else if (configManager.isAutoClearEnabled()) {
             long remaining = clearManager.getTimeUntilNextClear();
             String time = configManager.formatTime(remaining);
             messageManager.send(sender, "status-enabled", "time", time);
+
+            for (ClearSchedule schedule : clearManager.getSchedules()) {
+                if (schedule.getProfile().isDefault()) {
+                    continue;
+                }
+                long scheduleRemaining = clearManager.getTimeUntilNextClear(schedule);
+                messageManager.send(sender, "status-schedule", Map.of(
+                        "schedule", schedule.getName(),
+                        "worlds", schedule.getProfile().describeWorlds(),
+                        "time", scheduleRemaining < 0 ? "-" : configManager.formatTime(scheduleRemaining)));
+            }
         } else {
             messageManager.send(sender, "status-disabled");
         }
     }
 
+    /**
+     * Handles /worldclear stats command.
+     */
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("worldclear.stats")) {
+            messageManager.send(sender, "no-permission");
+            return;
+        }
+
+        ClearMetrics metrics = plugin.getMetrics();
+        messageManager.send(sender, "stats-header");
+        messageManager.send(sender, "stats-totals", Map.of(
+                "sweeps", String.valueOf(metrics.getSweeps()),
+                "scanned", String.valueOf(metrics.getEntitiesScanned()),
+                "removed", String.valueOf(metrics.getEntitiesRemoved()),
+                "hotspot", String.valueOf(metrics.getHotspotItemsRemoved())));
+        if (clearManager.isSweepRunning()) {
+            messageManager.send(sender, "stats-removal-rate", Map.of(
+                    "rate", String.valueOf(metrics.getRemovalsPerSecond()),
+                    "queue", String.valueOf(metrics.getRemovalQueueDepth())));
+        }
+        messageManager.send(sender, "stats-sweep-time", Map.of(
+                "p50", formatDecimal(metrics.getSweepMillisP50()),
+                "p99", formatDecimal(metrics.getSweepMillisP99()),
+                "max", formatDecimal(metrics.getSweepMillisMax())));
+        messageManager.send(sender, "stats-chunk-time", Map.of(
+                "p50", formatDecimal(metrics.getChunkMicrosP50()),
+                "p99", formatDecimal(metrics.getChunkMicrosP99()),
+                "max", formatDecimal(metrics.getChunkMicrosMax())));
+
+        Map<String, Long> scannedByWorld = metrics.getScannedByWorld();
+        metrics.getRemovedByWorld().forEach((world, removed) ->
+                messageManager.send(sender, "stats-world", Map.of(
+                        "world", world,
+                        "removed", String.valueOf(removed),
+                        "scanned", String.valueOf(scannedByWorld.getOrDefault(world, 0L)))));
+
+        metrics.getRemovedByMaterial().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(STATS_TOP_MATERIALS)
+                .forEach(entry -> messageManager.send(sender, "stats-material",
+                        "material", entry.getKey(), "count", String.valueOf(entry.getValue())));
+    }
+
+    /**
+     * Handles /worldclear recover command.
+     * Lists the stored clears of a world, or gives the items of one of them to the player.
+     */
+    private void handleRecover(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("worldclear.recover")) {
+            messageManager.send(sender, "no-permission");
+            return;
+        }
+
+        if (!configManager.isLostAndFoundEnabled()) {
+            messageManager.send(sender, "recover-disabled");
+            return;
+        }
+
+        if (args.length < 2) {
+            messageManager.send(sender, "recover-usage");
+            return;
+        }
+
+        String world = args[1];
+        boolean take = args.length >= 4 && args[2].equalsIgnoreCase("take");
+        int number = parsePositive(take ? args[3] : args.length >= 3 ? args[2] : "1");
+        if (number < 1 || (!take && args.length > 3)) {
+            messageManager.send(sender, "recover-usage");
+            return;
+        }
+
+        if (take && !(sender instanceof Player)) {
+            messageManager.send(sender, "no-console");
+            return;
+        }
+
+        plugin.getLostAndFound().getBatches(world).whenComplete((batches, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.WARNING, "Failed to read the lost and found", error);
+                messageManager.send(sender, "recover-failed");
+            } else if (batches.isEmpty()) {
+                messageManager.send(sender, "recover-empty", "world", world);
+            } else if (take) {
+                recoverBatch((Player) sender, batches, number);
+            } else {
+                listBatches(sender, world, batches, number);
+            }
+        });
+    }
+
+    /**
+     * Sends a page of stored clears, numbered newest first.
+     */
+    private void listBatches(CommandSender sender, String world, List<LostBatch> batches, int page) {
+        int pages = (batches.size() + RECOVER_PAGE_SIZE - 1) / RECOVER_PAGE_SIZE;
+        int shown = Math.min(page, pages);
+        messageManager.send(sender, "recover-header", Map.of(
+                "world", world, "page", String.valueOf(shown), "pages", String.valueOf(pages)));
+
+        long now = System.currentTimeMillis();
+        int end = Math.min(batches.size(), shown * RECOVER_PAGE_SIZE);
+        for (int i = (shown - 1) * RECOVER_PAGE_SIZE; i < end; i++) {
+            LostBatch batch = batches.get(i);
+            messageManager.send(sender, batch.claimed() ? "recover-entry-claimed" : "recover-entry", Map.of(
+                    "number", String.valueOf(i + 1),
+                    "time", configManager.formatTime(Math.max(1, (now - batch.timestamp()) / 1000)),
+                    "count", String.valueOf(batch.items())));
+        }
+    }
+
+    /**
+     * Gives the items of a stored clear to a player, dropping what doesn't fit at their feet.
+     */
+    private void recoverBatch(Player player, List<LostBatch> batches, int number) {
+        if (number > batches.size()) {
+            messageManager.send(player, "recover-unavailable");
+            return;
+        }
+
+        LostAndFound lostAndFound = plugin.getLostAndFound();
+        LostBatch batch = batches.get(number - 1);
+        lostAndFound.claim(batch).whenComplete((stacks, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.WARNING, "Failed to read the lost and found", error);
+                messageManager.send(player, "recover-failed");
+                return;
+            }
+            if (stacks == null) {
+                messageManager.send(player, "recover-unavailable");
+                return;
+            }
+
+            plugin.getTaskScheduler().runForEntity(player, () -> {
+                for (ItemStack leftover : player.getInventory().addItem(stacks.toArray(new ItemStack[0])).values()) {
+                    player.getWorld().dropItem(player.getLocation(), leftover);
+                }
+                lostAndFound.confirmClaim(batch);
+                messageManager.send(player, "recover-success",
+                        "count", String.valueOf(stacks.size()), "number", String.valueOf(number));
+            }, () -> lostAndFound.releaseClaim(batch));
+        });
+    }
+
+    /**
+     * Handles /worldclear deepclean command.
+     * Removes the items saved in the unloaded chunks of a world, loaded or not.
+     */
+    private void handleDeepClean(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("worldclear.deepclean")) {
+            messageManager.send(sender, "no-permission");
+            return;
+        }
+
+        if (args.length != 2) {
+            messageManager.send(sender, "deepclean-usage");
+            return;
+        }
+
+        String name = args[1];
+        World world = Bukkit.getWorld(name);
+        Path container = Bukkit.getWorldContainer().toPath().normalize();
+        Path folder = world != null ? world.getWorldFolder().toPath() : container.resolve(name).normalize();
+        if (world == null && (!container.equals(folder.getParent()) || !Files.isRegularFile(folder.resolve("level.dat")))) {
+            messageManager.send(sender, "deepclean-unknown-world", "world", name);
+            return;
+        }
+
+        String worldName = world != null ? world.getName() : folder.getFileName().toString();
+        ScheduleProfile profile = world != null
+                ? configManager.getScheduleProfile(world) : configManager.getScheduleProfile(worldName);
+        if (!profile.filter().allowsWorld(worldName)) {
+            messageManager.send(sender, "deepclean-protected", "world", worldName);
+            return;
+        }
+
+        DeepCleanJob running = clearManager.getDeepCleanJob();
+        if (running != null || !clearManager.startDeepClean(worldName, world, folder, sender)) {
+            messageManager.send(sender, "deepclean-running",
+                    "world", running != null ? running.getWorldName() : worldName);
+        }
+    }
+
+    /**
+     * Handles /worldclear notify command.
+     * Without an argument the clear notices are toggled.
+     */
+    private void handleNotify(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("worldclear.notify")) {
+            messageManager.send(sender, "no-permission");
+            return;
+        }
+
+        if (!(sender instanceof Player player)) {
+            messageManager.send(sender, "no-console");
+            return;
+        }
+
+        NotifyPreferences preferences = plugin.getNotifyPreferences();
+        boolean mute;
+        if (args.length == 1) {
+            mute = !preferences.isMuted(player.getUniqueId());
+        } else if (args.length == 2 && (args[1].equalsIgnoreCase("on") || args[1].equalsIgnoreCase("off"))) {
+            mute = args[1].equalsIgnoreCase("off");
+        } else {
+            messageManager.send(sender, "notify-usage");
+            return;
+        }
+
+        preferences.setMuted(player.getUniqueId(), mute, plugin.getWorkerPool());
+        messageManager.send(sender, mute ? "notify-off" : "notify-on");
+    }
+
+    private static int parsePositive(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String formatDecimal(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
     /**
      * Handles /worldclear on command.
      */
@@ -138,11 +422,8 @@ public class WorldClearCommand implements CommandExecutor {
             return;
         }
 
-        if (plugin.reload()) {
-            messageManager.send(sender, "reload-success");
-        } else {
-            messageManager.send(sender, "reload-failed");
-        }
+        plugin.reload().thenAccept(success ->
+                messageManager.send(sender, success ? "reload-success" : "reload-failed"));
     }
 
     /**
@@ -177,8 +458,8 @@ public class WorldClearCommand implements CommandExecutor {
         configManager.setInterval(interval);
 
         // Restart auto clear with new interval if enabled
+        clearManager.loadSchedules();
         if (configManager.isAutoClearEnabled()) {
-            clearManager.stopAutoClear();
             clearManager.startAutoClear();
         }
 
@@ -1,6 +1,8 @@
 package dev.nxms.worldclear.command;
 
 import dev.nxms.worldclear.WorldClear;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
@@ -11,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Provides tab completion for WorldClear commands.
@@ -27,7 +30,11 @@ public class WorldClearTabCompleter implements TabCompleter {
             new SubCommand("off", "worldclear.off"),
             new SubCommand("reload", "worldclear.reload"),
             new SubCommand("set", "worldclear.set"),
-            new SubCommand("info", "worldclear.info")
+            new SubCommand("info", "worldclear.info"),
+            new SubCommand("stats", "worldclear.stats"),
+            new SubCommand("recover", "worldclear.recover"),
+            new SubCommand("deepclean", "worldclear.deepclean"),
+            new SubCommand("notify", "worldclear.notify")
     );
 
     // Example intervals for tab completion
@@ -69,6 +76,20 @@ public class WorldClearTabCompleter implements TabCompleter {
                 completions = INTERVAL_EXAMPLES.stream()
                         .filter(interval -> interval.startsWith(input))
                         .collect(Collectors.toList());
+            } else if (subCommand.equals("clear") && sender.hasPermission("worldclear.clear.network")) {
+                if ("network".startsWith(input)) {
+                    completions.add("network");
+                }
+            } else if (subCommand.equals("notify") && sender.hasPermission("worldclear.notify")) {
+                completions = Stream.of("on", "off")
+                        .filter(state -> state.startsWith(input))
+                        .collect(Collectors.toList());
+            } else if ((subCommand.equals("recover") && sender.hasPermission("worldclear.recover"))
+                    || (subCommand.equals("deepclean") && sender.hasPermission("worldclear.deepclean"))) {
+                completions = Bukkit.getWorlds().stream()
+                        .map(World::getName)
+                        .filter(name -> name.toLowerCase().startsWith(input))
+                        .collect(Collectors.toList());
             }
         }
 
@@ -0,0 +1,359 @@
+package dev.nxms.worldclear.deepclean;
+
+import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.filter.ClearFilter;
+import dev.nxms.worldclear.manager.MessageManager;
+import dev.nxms.worldclear.scheduler.TaskHandle;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.task.ChunkClearer;
+import dev.nxms.worldclear.task.TickMonitor;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Removes dropped items saved in chunks that aren't loaded, which clears never see.
+ * The entity region files of the world are read on the worker pool, one task per file.
+ * Worlds that aren't loaded have their files rewritten directly. Loaded worlds have their
+ * files open in the server, so there the chunks found holding items are loaded a few at a time
+ * and cleared like any other chunk. Chunks that are already loaded are left to the regular clears.
+ */
+public class DeepCleanJob implements Listener {
+
+    private static final int PROGRESS_TICKS = 100;
+    private static final int LOAD_TIMEOUT_TICKS = 200;
+
+    private final WorldClear plugin;
+    private final String worldName;
+    private final World world;
+    private final Path worldFolder;
+    private final ClearFilter filter;
+    private final ChunkClearer clearer;
+    private final CommandSender sender;
+    private final Runnable onFinish;
+    private final int maxLoading;
+
+    private final AtomicInteger regionsDone = new AtomicInteger();
+    private final AtomicInteger chunksCleaned = new AtomicInteger();
+    private final AtomicInteger itemsRemoved = new AtomicInteger();
+    private final AtomicInteger unreadable = new AtomicInteger();
+    private final Queue<Long> loadQueue = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Long> loading = new ConcurrentHashMap<>();
+    private volatile int regionsTotal = -1;
+    private volatile boolean cancelled;
+    // Set on the event thread as soon as the server opens the world, before the abort reaches the global thread
+    private volatile boolean worldOpened;
+
+    // Only used on the timing wheel
+    private TaskHandle tickTask;
+    private long tick;
+    private long startedAt;
+
+    /**
+     * Creates a deep clean of a world.
+     *
+     * @param plugin plugin instance
+     * @param worldName name of the world
+     * @param world the world if it is loaded, null to rewrite its files directly
+     * @param worldFolder folder of the world
+     * @param filter filter of the profile covering the world
+     * @param clearer clearer for chunks of the loaded world, null if it isn't loaded
+     * @param sender receives progress reports
+     * @param onFinish runs once the job is done or cancelled
+     */
+    public DeepCleanJob(WorldClear plugin, String worldName, World world, Path worldFolder, ClearFilter filter,
+                        ChunkClearer clearer, CommandSender sender, Runnable onFinish) {
+        this.plugin = plugin;
+        this.worldName = worldName;
+        this.world = world;
+        this.worldFolder = worldFolder;
+        this.filter = filter;
+        this.clearer = clearer;
+        this.sender = sender;
+        this.onFinish = onFinish;
+        this.maxLoading = plugin.getConfigManager().getDeepCleanMaxLoading();
+    }
+
+    /**
+     * Lists the region files on the worker pool and starts processing them.
+     */
+    public void start() {
+        startedAt = System.currentTimeMillis();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        tickTask = plugin.getTimingWheel().schedule(this::tick, 1L, 1L);
+
+        // Chunks loaded right now are cleared by the regular clears, rechecked before loading
+        long[] loaded = world != null ? plugin.getItemTracker().getLoadedChunkKeys(world) : new long[0];
+        Arrays.sort(loaded);
+        LongPredicate skip = key -> Arrays.binarySearch(loaded, key) >= 0;
+
+        try {
+            plugin.getWorkerPool().execute(() -> {
+                List<EntityRegion> regions;
+                try {
+                    regions = listRegions();
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Failed to list the entity files of " + worldName, e);
+                    regions = List.of();
+                }
+
+                int total = regions.size();
+                plugin.getTaskScheduler().runGlobal(() -> plugin.getMessageManager().send(sender,
+                        "deepclean-started", "world", worldName, "regions", String.valueOf(total)));
+                for (EntityRegion region : regions) {
+                    plugin.getWorkerPool().execute(() -> process(region, skip));
+                }
+                regionsTotal = total;
+            });
+        } catch (RejectedExecutionException e) {
+            regionsTotal = 0;
+        }
+    }
+
+    /**
+     * Stops the job, e.g. when the plugin is disabled. Region files already replaced stay cleaned.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        HandlerList.unregisterAll(this);
+    }
+
+    /**
+     * Gets the name of the world being cleaned.
+     *
+     * @return world name
+     */
+    public String getWorldName() {
+        return worldName;
+    }
+
+    private List<EntityRegion> listRegions() throws IOException {
+        List<Path> directories = new ArrayList<>();
+        if (world == null) {
+            // Nothing tells which dimension an unloaded folder holds, so every entities folder is cleaned
+            directories.add(worldFolder.resolve("entities"));
+            directories.add(worldFolder.resolve("DIM-1").resolve("entities"));
+            directories.add(worldFolder.resolve("DIM1").resolve("entities"));
+        } else {
+            directories.add(switch (world.getEnvironment()) {
+                case NETHER -> worldFolder.resolve("DIM-1").resolve("entities");
+                case THE_END -> worldFolder.resolve("DIM1").resolve("entities");
+                default -> worldFolder.resolve("entities");
+            });
+        }
+
+        List<EntityRegion> regions = new ArrayList<>();
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(EntityRegion::of).filter(region -> region != null).forEach(regions::add);
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Processes one region file on a worker thread.
+     */
+    private void process(EntityRegion region, LongPredicate skip) {
+        try {
+            if (cancelled) {
+                return;
+            }
+
+            EntityRegion.Result result = region.process(new NbtItemStripper(filter, plugin.getLootProtection()), skip,
+                    world == null, () -> cancelled || worldOpened);
+            unreadable.addAndGet(result.unreadable());
+            if (world == null) {
+                chunksCleaned.addAndGet(result.chunks().length);
+                itemsRemoved.addAndGet(result.items());
+            } else {
+                for (long key : result.chunks()) {
+                    loadQueue.add(key);
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to clean an entity file of " + worldName, e);
+        } finally {
+            regionsDone.incrementAndGet();
+        }
+    }
+
+    /**
+     * Loads queued chunks, reports progress and finishes the job, once a tick on the timing wheel.
+     */
+    private void tick() {
+        tick++;
+        if (world != null) {
+            expireLoads();
+            TickMonitor monitor = plugin.getTickMonitor();
+            if (monitor == null || !monitor.isBehind()) {
+                startLoads();
+            }
+        }
+
+        int total = regionsTotal;
+        boolean scanned = total >= 0 && regionsDone.get() >= total;
+        if (scanned && loadQueue.isEmpty() && loading.isEmpty()) {
+            finish();
+        } else if (tick % PROGRESS_TICKS == 0) {
+            plugin.getLostAndFound().flush();
+            plugin.getMessageManager().send(sender, "deepclean-progress", Map.of(
+                    "world", worldName,
+                    "done", String.valueOf(regionsDone.get()),
+                    "total", String.valueOf(Math.max(0, total)),
+                    "items", String.valueOf(itemsRemoved.get())));
+        }
+    }
+
+    private void startLoads() {
+        ItemTracker tracker = plugin.getItemTracker();
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        while (loading.size() < maxLoading) {
+            Long key = loadQueue.poll();
+            if (key == null) {
+                return;
+            }
+            if (tracker.isLoaded(world, key)) {
+                continue;
+            }
+
+            loading.put(key, tick + LOAD_TIMEOUT_TICKS);
+            int chunkX = ItemTracker.chunkX(key);
+            int chunkZ = ItemTracker.chunkZ(key);
+            scheduler.runAtChunk(world, chunkX, chunkZ, () -> world.getChunkAtAsync(chunkX, chunkZ, false)
+                    .whenComplete((chunk, error) -> {
+                        if (chunk == null) {
+                            loading.remove(key);
+                        } else if (loading.containsKey(key)) {
+                            // Keep the chunk loaded until its entities are there
+                            chunk.addPluginChunkTicket(plugin);
+                            if (chunk.isEntitiesLoaded()) {
+                                clearChunk(chunk, key);
+                            }
+                        }
+                    }));
+        }
+    }
+
+    private void expireLoads() {
+        for (Map.Entry<Long, Long> entry : loading.entrySet()) {
+            long key = entry.getKey();
+            if (entry.getValue() < tick && loading.remove(key) != null) {
+                int chunkX = ItemTracker.chunkX(key);
+                int chunkZ = ItemTracker.chunkZ(key);
+                plugin.getTaskScheduler().runAtChunk(world, chunkX, chunkZ,
+                        () -> world.removePluginChunkTicket(chunkX, chunkZ, plugin));
+            }
+        }
+    }
+
+    /**
+     * Clears the items of a chunk loaded by this job and lets it unload again.
+     * Runs on the thread owning the chunk.
+     */
+    private void clearChunk(Chunk chunk, long key) {
+        if (loading.remove(key) == null) {
+            return;
+        }
+
+        int removed = 0;
+        for (Entity entity : chunk.getEntities()) {
+            if (entity instanceof Item && clearer.clearEntity(entity)) {
+                removed++;
+            }
+        }
+        chunk.removePluginChunkTicket(plugin);
+
+        if (removed > 0) {
+            chunksCleaned.incrementAndGet();
+            itemsRemoved.addAndGet(removed);
+        }
+    }
+
+    private void finish() {
+        cancel();
+        plugin.getLostAndFound().flush();
+        if (unreadable.get() > 0) {
+            plugin.getLogger().warning("Deep clean of " + worldName + " skipped " + unreadable.get()
+                    + " chunks that couldn't be read");
+        }
+
+        MessageManager messages = plugin.getMessageManager();
+        messages.send(sender, "deepclean-done", Map.of(
+                "world", worldName,
+                "items", String.valueOf(itemsRemoved.get()),
+                "chunks", String.valueOf(chunksCleaned.get()),
+                "time", plugin.getConfigManager().formatTime(
+                        Math.max(1, (System.currentTimeMillis() - startedAt) / 1000))));
+        onFinish.run();
+    }
+
+    private void abort() {
+        if (cancelled) {
+            return;
+        }
+        cancel();
+        plugin.getMessageManager().send(sender, "deepclean-cancelled", "world", worldName);
+        onFinish.run();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        long key = ItemTracker.chunkKey(chunk.getX(), chunk.getZ());
+        if (chunk.getWorld().equals(world) && loading.containsKey(key)) {
+            // Cleared after the event, so other listeners see the chunk as it was loaded
+            plugin.getTaskScheduler().runAtChunk(world, chunk.getX(), chunk.getZ(), () -> clearChunk(chunk, key));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        // The server now owns the files being rewritten
+        if (world == null && event.getWorld().getName().equalsIgnoreCase(worldName)) {
+            worldOpened = true;
+            plugin.getTaskScheduler().runGlobal(this::abort);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        if (event.getWorld().equals(world)) {
+            plugin.getTaskScheduler().runGlobal(this::abort);
+        }
+    }
+}
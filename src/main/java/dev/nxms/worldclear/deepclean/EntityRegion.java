@@ -0,0 +1,272 @@
+package dev.nxms.worldclear.deepclean;
+
+import dev.nxms.worldclear.tracker.ItemTracker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A region file of saved entities (entities/r.X.Z.mca).
+ * Its header maps each of the 1024 chunks to a run of 4 KiB sectors, holding the length,
+ * compression type and compressed NBT of the chunk. Chunks stored in external files are left alone.
+ */
+final class EntityRegion {
+
+    private static final Pattern NAME = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.mca");
+    private static final int SECTOR = 4096;
+    private static final int CHUNKS = 1024;
+    private static final int HEADER = 2 * SECTOR;
+    private static final int MAX_SECTORS = 255;
+    private static final byte GZIP = 1;
+    private static final byte ZLIB = 2;
+    private static final byte NONE = 3;
+
+    private final Path file;
+    private final int regionX;
+    private final int regionZ;
+
+    private EntityRegion(Path file, int regionX, int regionZ) {
+        this.file = file;
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+    }
+
+    /**
+     * Gets the region of a file.
+     *
+     * @param file file in an entities directory
+     * @return region, or null if the file isn't a region file
+     */
+    static EntityRegion of(Path file) {
+        Matcher matcher = NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return new EntityRegion(file, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the chunks holding items the stripper removes, optionally removing them.
+     * When rewriting, only the changed chunks are encoded again and the other chunks are copied as they are.
+     * The new file replaces the old one in a single move, so a crash leaves either of them.
+     * Cancelling is checked right before the move, a cancelled rewrite leaves the file as it was.
+     *
+     * @param stripper stripper of the calling worker
+     * @param skip chunks to leave alone, by packed chunk key
+     * @param rewrite true to remove the items from the file
+     * @param cancelled true once the file must no longer be replaced, e.g. because the server opened it
+     * @return chunks holding removable items and their count, none if the rewrite was cancelled
+     * @throws IOException if the file can't be read or replaced
+     */
+    Result process(NbtItemStripper stripper, LongPredicate skip, boolean rewrite, BooleanSupplier cancelled)
+            throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.limit() < HEADER) {
+            return new Result(new long[0], 0, 0);
+        }
+
+        byte[][] replaced = rewrite ? new byte[CHUNKS][] : null;
+        long[] chunks = new long[CHUNKS];
+        int count = 0;
+        int items = 0;
+        int unreadable = 0;
+
+        for (int i = 0; i < CHUNKS; i++) {
+            int location = data.getInt(i * 4);
+            if (location == 0) {
+                continue;
+            }
+            long key = ItemTracker.chunkKey(regionX * 32 + (i & 31), regionZ * 32 + (i >> 5));
+            if (skip.test(key)) {
+                continue;
+            }
+
+            byte[] payload = readPayload(data, location);
+            if (payload == null) {
+                unreadable++;
+                continue;
+            }
+
+            ByteArrayOutputStream raw = rewrite ? new ByteArrayOutputStream(payload.length * 4) : null;
+            int removed;
+            try (DataInputStream in = new DataInputStream(decompress(data.get((location >>> 8) * SECTOR + 4),
+                    new ByteArrayInputStream(payload)))) {
+                removed = stripper.strip(in, new DataOutputStream(raw != null ? raw : OutputStream.nullOutputStream()));
+            } catch (IOException e) {
+                unreadable++;
+                continue;
+            }
+            if (removed == 0) {
+                continue;
+            }
+
+            if (rewrite) {
+                byte[] encoded = encode(raw);
+                if (encoded.length > MAX_SECTORS * SECTOR) {
+                    unreadable++;
+                    continue;
+                }
+                replaced[i] = encoded;
+            }
+            chunks[count++] = key;
+            items += removed;
+        }
+
+        if (rewrite && count > 0 && !write(data, replaced, cancelled)) {
+            return new Result(new long[0], 0, unreadable);
+        }
+        return new Result(Arrays.copyOf(chunks, count), items, unreadable);
+    }
+
+    /**
+     * Reads the compressed NBT of a chunk.
+     *
+     * @return payload, or null if the chunk is damaged, external or uses an unsupported compression
+     */
+    private static byte[] readPayload(ByteBuffer data, int location) {
+        long start = (long) (location >>> 8) * SECTOR;
+        if (start < HEADER || start + 5 > data.limit()) {
+            return null;
+        }
+
+        int length = data.getInt((int) start);
+        byte compression = data.get((int) start + 4);
+        if (length < 1 || start + 4 + length > data.limit() || compression < GZIP || compression > NONE) {
+            return null;
+        }
+
+        byte[] payload = new byte[length - 1];
+        data.get((int) start + 5, payload);
+        return payload;
+    }
+
+    private static InputStream decompress(byte compression, InputStream in) throws IOException {
+        return switch (compression) {
+            case GZIP -> new GZIPInputStream(in);
+            case ZLIB -> new InflaterInputStream(in);
+            default -> in;
+        };
+    }
+
+    /**
+     * Compresses chunk NBT into a chunk record of length, compression type and data.
+     */
+    private static byte[] encode(ByteArrayOutputStream raw) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(raw.size() / 2 + 5);
+        record.write(new byte[5]);
+
+        Deflater deflater = new Deflater();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(record, deflater)) {
+            raw.writeTo(out);
+        } finally {
+            deflater.end();
+        }
+
+        byte[] bytes = record.toByteArray();
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 4).put(ZLIB);
+        return bytes;
+    }
+
+    /**
+     * Writes the region to a temporary file, chunks packed in header order, and moves it over the old file.
+     *
+     * @return false if the write was cancelled and the old file kept
+     */
+    private boolean write(ByteBuffer data, byte[][] replaced, BooleanSupplier cancelled) throws IOException {
+        if (cancelled.getAsBoolean()) {
+            return false;
+        }
+
+        int timestamp = (int) (System.currentTimeMillis() / 1000);
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int sector = HEADER / SECTOR;
+            for (int i = 0; i < CHUNKS; i++) {
+                int location = data.getInt(i * 4);
+                long start = (long) (location >>> 8) * SECTOR;
+                if (location == 0 || start < HEADER || start >= data.limit()) {
+                    continue;
+                }
+
+                ByteBuffer record;
+                if (replaced[i] != null) {
+                    record = ByteBuffer.wrap(replaced[i]);
+                    header.putInt(SECTOR + i * 4, timestamp);
+                } else {
+                    int length = (int) Math.min((long) (location & 0xFF) * SECTOR, data.limit() - start);
+                    record = data.slice((int) start, length);
+                    header.putInt(SECTOR + i * 4, data.getInt(SECTOR + i * 4));
+                }
+
+                int sectors = (record.remaining() + SECTOR - 1) / SECTOR;
+                header.putInt(i * 4, sector << 8 | sectors);
+                writeFully(out, record, (long) sector * SECTOR);
+                sector += sectors;
+            }
+
+            writeFully(out, header, 0);
+            // Pad the last chunk to a whole sector
+            if (out.size() < (long) sector * SECTOR) {
+                writeFully(out, ByteBuffer.allocate(1), (long) sector * SECTOR - 1);
+            }
+            out.force(true);
+        }
+
+        // Writing takes a while, the server may have opened the world meanwhile
+        if (cancelled.getAsBoolean()) {
+            Files.deleteIfExists(temp);
+            return false;
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+    }
+
+    /**
+     * Outcome of processing a region file.
+     *
+     * @param chunks packed keys of the chunks holding removable items
+     * @param items number of removable items
+     * @param unreadable number of chunks that couldn't be read
+     */
+    record Result(long[] chunks, int items, int unreadable) {
+    }
+}
@@ -0,0 +1,322 @@
+package dev.nxms.worldclear.deepclean;
+
+import dev.nxms.worldclear.filter.ClearFilter;
+import dev.nxms.worldclear.tracker.LootProtection;
+import org.bukkit.Material;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streaming copier for the NBT of an entity chunk that leaves out the dropped items a filter removes.
+ * Tags are copied as they are read, only the entries of the root Entities list are buffered
+ * until their id and stack are known. Scanning works the same way, by copying to a discarding stream.
+ * Not thread safe, every worker uses its own instance.
+ */
+final class NbtItemStripper {
+
+    private static final byte TAG_END = 0;
+    private static final byte TAG_BYTE = 1;
+    private static final byte TAG_SHORT = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_BYTE_ARRAY = 7;
+    private static final byte TAG_STRING = 8;
+    private static final byte TAG_LIST = 9;
+    private static final byte TAG_COMPOUND = 10;
+    private static final byte TAG_INT_ARRAY = 11;
+    private static final byte TAG_LONG_ARRAY = 12;
+
+    // Guards against damaged or hostile files nesting lists without end
+    private static final int MAX_DEPTH = 512;
+    private static final String ITEM_ID = "minecraft:item";
+
+    private final ClearFilter filter;
+    private final LootProtection protection;
+    private final byte[] buffer = new byte[8192];
+    private final ByteArrayOutputStream entity = new ByteArrayOutputStream(1024);
+    private final DataOutputStream entityOut = new DataOutputStream(entity);
+    private final ByteArrayOutputStream kept = new ByteArrayOutputStream(16384);
+
+    // State of the entity being copied
+    private String entityId;
+    private String stackId;
+    private int age;
+    private UUID id;
+    private boolean named;
+    private final List<String> tags = new ArrayList<>();
+
+    NbtItemStripper(ClearFilter filter, LootProtection protection) {
+        this.filter = filter;
+        this.protection = protection;
+    }
+
+    /**
+     * Copies an entity chunk without the dropped items the filter removes.
+     *
+     * @param in uncompressed chunk NBT
+     * @param out receives the chunk without the removed items
+     * @return number of items left out
+     * @throws IOException if the NBT is damaged
+     */
+    int strip(DataInputStream in, DataOutputStream out) throws IOException {
+        byte type = in.readByte();
+        if (type != TAG_COMPOUND) {
+            throw new IOException("Entity chunk doesn't start with a compound");
+        }
+        out.writeByte(type);
+        copyString(in, out);
+
+        int removed = 0;
+        while (true) {
+            byte tag = in.readByte();
+            out.writeByte(tag);
+            if (tag == TAG_END) {
+                return removed;
+            }
+
+            String name = in.readUTF();
+            out.writeUTF(name);
+            if (tag == TAG_LIST && name.equals("Entities")) {
+                removed += stripEntities(in, out);
+            } else {
+                copyPayload(tag, in, out, 1);
+            }
+        }
+    }
+
+    private int stripEntities(DataInputStream in, DataOutputStream out) throws IOException {
+        byte elementType = in.readByte();
+        int length = in.readInt();
+        if (elementType != TAG_COMPOUND) {
+            out.writeByte(elementType);
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                copyPayload(elementType, in, out, 2);
+            }
+            return 0;
+        }
+
+        kept.reset();
+        int keptCount = 0;
+        for (int i = 0; i < length; i++) {
+            entity.reset();
+            copyEntity(in, entityOut);
+            if (ITEM_ID.equals(entityId) && filter.testSaved(stackId != null ? Material.matchMaterial(stackId) : null,
+                    age, id, protection, named, tags)) {
+                continue;
+            }
+            entity.writeTo(kept);
+            keptCount++;
+        }
+
+        out.writeByte(TAG_COMPOUND);
+        out.writeInt(keptCount);
+        kept.writeTo(out);
+        return length - keptCount;
+    }
+
+    /**
+     * Copies one entity, noting its id, age, uuid, the id of its stack, its name and persistent data keys.
+     * Items without an age or with an unlimited lifetime count as old enough.
+     */
+    private void copyEntity(DataInputStream in, DataOutputStream out) throws IOException {
+        entityId = null;
+        stackId = null;
+        age = Integer.MAX_VALUE;
+        id = null;
+        named = false;
+        tags.clear();
+
+        while (true) {
+            byte tag = in.readByte();
+            out.writeByte(tag);
+            if (tag == TAG_END) {
+                return;
+            }
+
+            String name = in.readUTF();
+            out.writeUTF(name);
+            if (tag == TAG_STRING && name.equals("id")) {
+                entityId = copyString(in, out);
+            } else if (tag == TAG_SHORT && name.equals("Age")) {
+                short value = in.readShort();
+                out.writeShort(value);
+                age = value >= 0 ? value : Integer.MAX_VALUE;
+            } else if (tag == TAG_INT_ARRAY && name.equals("UUID")) {
+                id = copyUuid(in, out);
+            } else if (tag == TAG_STRING && name.equals("CustomName")) {
+                named = true;
+                copyString(in, out);
+            } else if (tag == TAG_COMPOUND && name.equals("Item")) {
+                copyStack(in, out);
+            } else if (tag == TAG_COMPOUND && name.equals("BukkitValues")) {
+                copyCompound(in, out, 3, tags);
+            } else {
+                copyPayload(tag, in, out, 3);
+            }
+        }
+    }
+
+    private void copyStack(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            byte tag = in.readByte();
+            out.writeByte(tag);
+            if (tag == TAG_END) {
+                return;
+            }
+
+            String name = in.readUTF();
+            out.writeUTF(name);
+            if (tag == TAG_STRING && name.equals("id")) {
+                stackId = copyString(in, out);
+            } else if (tag == TAG_COMPOUND && name.equals("components")) {
+                copyComponents(in, out);
+            } else {
+                // Stacks saved before item components keep their name somewhere in the tag compound,
+                // treat any of them as named rather than digging through it
+                named |= tag == TAG_COMPOUND && name.equals("tag");
+                copyPayload(tag, in, out, 4);
+            }
+        }
+    }
+
+    /**
+     * Copies the components of a stack, noting its custom name and the persistent data keys of the stack.
+     */
+    private void copyComponents(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            byte tag = in.readByte();
+            out.writeByte(tag);
+            if (tag == TAG_END) {
+                return;
+            }
+
+            String name = in.readUTF();
+            out.writeUTF(name);
+            named |= name.equals("minecraft:custom_name");
+            if (tag == TAG_COMPOUND && name.equals("minecraft:custom_data")) {
+                copyCustomData(in, out);
+            } else {
+                copyPayload(tag, in, out, 5);
+            }
+        }
+    }
+
+    private void copyCustomData(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            byte tag = in.readByte();
+            out.writeByte(tag);
+            if (tag == TAG_END) {
+                return;
+            }
+
+            String name = in.readUTF();
+            out.writeUTF(name);
+            if (tag == TAG_COMPOUND && name.equals("PublicBukkitValues")) {
+                copyCompound(in, out, 6, tags);
+            } else {
+                copyPayload(tag, in, out, 6);
+            }
+        }
+    }
+
+    private void copyCompound(DataInputStream in, DataOutputStream out, int depth, List<String> names)
+            throws IOException {
+        while (true) {
+            byte tag = in.readByte();
+            out.writeByte(tag);
+            if (tag == TAG_END) {
+                return;
+            }
+
+            String name = in.readUTF();
+            out.writeUTF(name);
+            if (names != null) {
+                names.add(name);
+            }
+            copyPayload(tag, in, out, depth + 1);
+        }
+    }
+
+    private void copyPayload(byte type, DataInputStream in, DataOutputStream out, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT is nested too deep");
+        }
+
+        switch (type) {
+            case TAG_BYTE -> copy(in, out, 1);
+            case TAG_SHORT -> copy(in, out, 2);
+            case TAG_INT, TAG_FLOAT -> copy(in, out, 4);
+            case TAG_LONG, TAG_DOUBLE -> copy(in, out, 8);
+            case TAG_BYTE_ARRAY -> copyArray(in, out, 1);
+            case TAG_INT_ARRAY -> copyArray(in, out, 4);
+            case TAG_LONG_ARRAY -> copyArray(in, out, 8);
+            case TAG_STRING -> copy(in, out, copyShort(in, out));
+            case TAG_LIST -> {
+                byte elementType = in.readByte();
+                int length = in.readInt();
+                out.writeByte(elementType);
+                out.writeInt(length);
+                for (int i = 0; i < length; i++) {
+                    copyPayload(elementType, in, out, depth + 1);
+                }
+            }
+            case TAG_COMPOUND -> copyCompound(in, out, depth, null);
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private String copyString(DataInputStream in, DataOutputStream out) throws IOException {
+        String value = in.readUTF();
+        out.writeUTF(value);
+        return value;
+    }
+
+    private UUID copyUuid(DataInputStream in, DataOutputStream out) throws IOException {
+        int length = in.readInt();
+        out.writeInt(length);
+        if (length != 4) {
+            copy(in, out, Math.max(0, length) * 4L);
+            return null;
+        }
+        long[] halves = new long[2];
+        for (int i = 0; i < 4; i++) {
+            int value = in.readInt();
+            out.writeInt(value);
+            halves[i / 2] = halves[i / 2] << 32 | (value & 0xFFFFFFFFL);
+        }
+        return new UUID(halves[0], halves[1]);
+    }
+
+    private int copyShort(DataInputStream in, DataOutputStream out) throws IOException {
+        int value = in.readUnsignedShort();
+        out.writeShort(value);
+        return value;
+    }
+
+    private void copyArray(DataInputStream in, DataOutputStream out, int width) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative NBT array length " + length);
+        }
+        out.writeInt(length);
+        copy(in, out, (long) length * width);
+    }
+
+    private void copy(DataInputStream in, DataOutputStream out, long bytes) throws IOException {
+        while (bytes > 0) {
+            int read = (int) Math.min(bytes, buffer.length);
+            in.readFully(buffer, 0, read);
+            out.write(buffer, 0, read);
+            bytes -= read;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package dev.nxms.worldclear.filter;
+
+import dev.nxms.worldclear.tracker.LootProtection;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Boat;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Minecart;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataContainer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Decides which entities a clear removes.
+ * Compiled once from the filter section of config.yml into enum and bit sets,
+ * so testing an entity does no string comparisons.
+ */
+public final class ClearFilter {
+
+    private final EnumSet<EntityType> types;
+    private final EnumSet<EntityType> vehicleTypes;
+    private final BitSet protectedMaterials;
+    private final Set<String> protectedWorlds;
+    private final NamespacedKey[] protectedTags;
+    private final int minAgeTicks;
+    private final boolean skipNamed;
+    private final int maxVehiclesPerChunk;
+    private final boolean itemsOnly;
+
+    private ClearFilter(EnumSet<EntityType> types, BitSet protectedMaterials, Set<String> protectedWorlds,
+                        NamespacedKey[] protectedTags, int minAgeTicks, boolean skipNamed, int maxVehiclesPerChunk) {
+        this.types = types;
+        this.protectedMaterials = protectedMaterials;
+        this.protectedWorlds = protectedWorlds;
+        this.protectedTags = protectedTags;
+        this.minAgeTicks = minAgeTicks;
+        this.skipNamed = skipNamed;
+        this.maxVehiclesPerChunk = maxVehiclesPerChunk;
+        this.itemsOnly = types.equals(EnumSet.of(EntityType.ITEM));
+
+        this.vehicleTypes = EnumSet.noneOf(EntityType.class);
+        for (EntityType type : types) {
+            Class<? extends Entity> entityClass = type.getEntityClass();
+            if (entityClass != null && (Minecart.class.isAssignableFrom(entityClass)
+                    || Boat.class.isAssignableFrom(entityClass))) {
+                vehicleTypes.add(type);
+            }
+        }
+    }
+
+    /**
+     * Compiles the filter rules of a config section.
+     * Unknown entity types and materials are skipped with a warning, and so are players,
+     * which a clear must never remove. Living entity types are accepted with a warning.
+     *
+     * @param section filter section, or null for the defaults
+     * @param logger logger for invalid entries
+     * @return compiled filter
+     */
+    public static ClearFilter compile(ConfigurationSection section, Logger logger) {
+        if (section == null) {
+            return new ClearFilter(EnumSet.of(EntityType.ITEM), new BitSet(), Set.of(),
+                    new NamespacedKey[0], 0, true, 0);
+        }
+
+        EnumSet<EntityType> types = EnumSet.noneOf(EntityType.class);
+        List<String> typeNames = section.isList("entity-types")
+                ? section.getStringList("entity-types") : List.of("ITEM");
+        for (String name : typeNames) {
+            EntityType type;
+            try {
+                type = EntityType.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Unknown entity type in filter: " + name);
+                continue;
+            }
+            if (type == EntityType.PLAYER || type == EntityType.UNKNOWN) {
+                logger.warning("Entity type " + name + " can't be removed by a clear, ignoring it");
+                continue;
+            }
+            if (type.isAlive()) {
+                logger.warning("Filter removes living entities of type " + name + ", every clear will kill them");
+            }
+            types.add(type);
+        }
+
+        BitSet protectedMaterials = new BitSet();
+        for (String name : section.getStringList("protected-materials")) {
+            Material material = Material.matchMaterial(name);
+            if (material == null) {
+                logger.warning("Unknown material in filter: " + name);
+                continue;
+            }
+            protectedMaterials.set(material.ordinal());
+        }
+
+        Set<String> protectedWorlds = new HashSet<>();
+        for (String name : section.getStringList("protected-worlds")) {
+            protectedWorlds.add(name.toLowerCase(Locale.ROOT));
+        }
+
+        List<NamespacedKey> protectedTags = new ArrayList<>();
+        for (String name : section.getStringList("protected-tags")) {
+            NamespacedKey key = NamespacedKey.fromString(name.toLowerCase(Locale.ROOT));
+            if (key == null) {
+                logger.warning("Invalid persistent data key in filter: " + name);
+                continue;
+            }
+            protectedTags.add(key);
+        }
+
+        return new ClearFilter(
+                types,
+                protectedMaterials,
+                Set.copyOf(protectedWorlds),
+                protectedTags.toArray(new NamespacedKey[0]),
+                Math.max(0, section.getInt("min-age-ticks", 0)),
+                section.getBoolean("skip-named", true),
+                Math.max(0, section.getInt("max-vehicles-per-chunk", 0))
+        );
+    }
+
+    /**
+     * Checks if a world may be cleared at all.
+     * Evaluated once per world instead of once per entity.
+     *
+     * @param world world to check
+     * @return false for protected worlds
+     */
+    public boolean allowsWorld(World world) {
+        return allowsWorld(world.getName());
+    }
+
+    /**
+     * Checks if a world may be cleared at all, by name, for worlds that aren't loaded.
+     *
+     * @param worldName name of the world
+     * @return false for protected worlds
+     */
+    public boolean allowsWorld(String worldName) {
+        return protectedWorlds.isEmpty() || !protectedWorlds.contains(worldName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks if an entity should be removed by a clear.
+     * Cheap checks run first, name and tag lookups only for entities that pass them.
+     * Vehicle limits are applied per chunk by the caller.
+     *
+     * @param entity entity to check
+     * @return true if the entity should be removed
+     */
+    public boolean test(Entity entity) {
+        if (!types.contains(entity.getType()) || entity.getTicksLived() < minAgeTicks) {
+            return false;
+        }
+
+        if (entity instanceof Item item) {
+            ItemStack stack = item.getItemStack();
+            if (protectedMaterials.get(stack.getType().ordinal())) {
+                return false;
+            }
+            if (skipNamed && stack.hasItemMeta() && stack.getItemMeta().hasDisplayName()) {
+                return false;
+            }
+        }
+
+        if (skipNamed && entity.customName() != null) {
+            return false;
+        }
+
+        return !isTagged(entity);
+    }
+
+    /**
+     * Checks if an entity, or the stack of a dropped item, carries a protected persistent data key.
+     */
+    private boolean isTagged(Entity entity) {
+        if (protectedTags.length == 0) {
+            return false;
+        }
+
+        PersistentDataContainer container = entity.getPersistentDataContainer();
+        PersistentDataContainer stackContainer = null;
+        if (entity instanceof Item item && item.getItemStack().hasItemMeta()) {
+            stackContainer = item.getItemStack().getItemMeta().getPersistentDataContainer();
+        }
+        for (NamespacedKey key : protectedTags) {
+            if (container.has(key) || (stackContainer != null && stackContainer.has(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the state the filter needs from an entity, for evaluating it later on another thread.
+     * Must be called on the thread that owns the entity.
+     *
+     * @param entity entity to read
+     * @param chunkKey packed key of the entity's chunk
+     * @param ageOffsetTicks ticks until the clear runs, added to the entity's age
+     * @return snapshot, or null if the entity's type is never removed
+     */
+    public EntitySnapshot snapshot(Entity entity, long chunkKey, int ageOffsetTicks) {
+        EntityType type = entity.getType();
+        if (!types.contains(type)) {
+            return null;
+        }
+
+        Material material = null;
+        boolean named = skipNamed && entity.customName() != null;
+        if (entity instanceof Item item) {
+            ItemStack stack = item.getItemStack();
+            material = stack.getType();
+            named |= skipNamed && stack.hasItemMeta() && stack.getItemMeta().hasDisplayName();
+        }
+
+        return new EntitySnapshot(entity.getUniqueId(), chunkKey, type, entity.getTicksLived() + ageOffsetTicks,
+                material, named, isTagged(entity), !entity.isEmpty());
+    }
+
+    /**
+     * Checks if an entity should be removed, based on a snapshot of its state.
+     * Reads only the snapshot and this filter, so it's safe on any thread.
+     *
+     * @param snapshot entity state
+     * @return true if the entity should be removed
+     */
+    public boolean test(EntitySnapshot snapshot) {
+        if (!types.contains(snapshot.type()) || snapshot.ageTicks() < minAgeTicks) {
+            return false;
+        }
+        if (snapshot.material() != null && protectedMaterials.get(snapshot.material().ordinal())) {
+            return false;
+        }
+        return !snapshot.named() && !snapshot.tagged();
+    }
+
+    /**
+     * Checks if a dropped item saved in an unloaded chunk should be removed, based on its saved data.
+     * Applies the same rules as to loaded items, including the age limit and loot protection.
+     *
+     * @param material material of the stack, or null if the server doesn't know it
+     * @param ageTicks saved age of the item
+     * @param id saved id of the item, or null if it has none
+     * @param protection loot protection, or null if it's disabled
+     * @param named true if the item or its stack has a custom name
+     * @param tags persistent data keys of the item and its stack
+     * @return true if the item should be removed
+     */
+    public boolean testSaved(Material material, int ageTicks, UUID id, LootProtection protection,
+                             boolean named, Collection<String> tags) {
+        if (!types.contains(EntityType.ITEM) || ageTicks < minAgeTicks || (skipNamed && named)) {
+            return false;
+        }
+        if (protection != null && id != null && protection.isProtected(id)) {
+            return false;
+        }
+        if (material != null && protectedMaterials.get(material.ordinal())) {
+            return false;
+        }
+        for (NamespacedKey key : protectedTags) {
+            if (tags.contains(key.asString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an entity type is a minecart or boat limited per chunk.
+     *
+     * @param type entity type
+     * @return true for limited vehicle types
+     */
+    public boolean isVehicle(EntityType type) {
+        return vehicleTypes.contains(type);
+    }
+
+    /**
+     * Gets how many matching vehicles are kept in each chunk.
+     *
+     * @return vehicles kept per chunk
+     */
+    public int getMaxVehiclesPerChunk() {
+        return maxVehiclesPerChunk;
+    }
+
+    /**
+     * Checks if only dropped items are removed, so the item index can be used
+     * instead of scanning every entity.
+     *
+     * @return true if dropped items are the only entity type
+     */
+    public boolean isItemsOnly() {
+        return itemsOnly;
+    }
+}
@@ -0,0 +1,23 @@
+package dev.nxms.worldclear.filter;
+
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+
+import java.util.UUID;
+
+/**
+ * The state of an entity the clear filter looks at, read on the entity's own thread.
+ * Snapshots are plain values, so they can be evaluated on any thread.
+ *
+ * @param id entity id
+ * @param chunkKey packed key of the chunk the entity was in
+ * @param type entity type
+ * @param ageTicks age the entity will have reached when the clear runs
+ * @param material material of a dropped item, null for other entities
+ * @param named true if the entity or its item stack has a custom name
+ * @param tagged true if the entity carries a protected persistent data key
+ * @param ridden true if the entity has passengers
+ */
+public record EntitySnapshot(UUID id, long chunkKey, EntityType type, int ageTicks, Material material,
+                             boolean named, boolean tagged, boolean ridden) {
+}
@@ -1,115 +1,569 @@
 package dev.nxms.worldclear.manager;
 
 import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.cluster.ClusterCoordinator;
+import dev.nxms.worldclear.deepclean.DeepCleanJob;
+import dev.nxms.worldclear.recovery.LostAndFound;
+import dev.nxms.worldclear.scheduler.TaskHandle;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.task.ChunkClearer;
+import dev.nxms.worldclear.task.ClearPlan;
+import dev.nxms.worldclear.task.ClearTarget;
 import dev.nxms.worldclear.task.ClearTask;
+import dev.nxms.worldclear.task.ConsolidationTask;
+import dev.nxms.worldclear.task.CountdownFrames;
 import dev.nxms.worldclear.task.CountdownTask;
+import dev.nxms.worldclear.task.DensitySampler;
+import dev.nxms.worldclear.task.HotspotTask;
+import dev.nxms.worldclear.task.PreScan;
+import dev.nxms.worldclear.task.RegionSweep;
+import dev.nxms.worldclear.task.SweepTask;
+import dev.nxms.worldclear.task.TickMonitor;
+import dev.nxms.worldclear.task.TrickleTask;
+import net.kyori.adventure.audience.Audience;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Item;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
 
 /**
  * Manages the item clearing functionality.
- * Handles auto clear scheduling and manual clear execution.
+ * Handles auto clear scheduling per schedule profile and manual clear execution.
  */
 public class ClearManager {
 
     private final WorldClear plugin;
-    private BukkitTask autoClearTask;
-    private BukkitTask countdownTask;
-    private long nextClearTime;
+    private final Deque<PendingClear> pendingClears = new ArrayDeque<>();
+    private final ScheduleState state;
+    private final Map<String, Long> resumeDeadlines;
+    private List<ClearSchedule> schedules = List.of();
+    private ClearSchedule manualSchedule;
+    private ClearSchedule emergencySchedule;
+    private TaskHandle sweepTask;
+    private TaskHandle samplerTask;
+    private TrickleTask trickleTask;
+    private TaskHandle hotspotTask;
+    private TaskHandle consolidationTask;
+    private ConsolidationTask consolidation;
+    private volatile DeepCleanJob deepCleanJob;
+    private long lastClearTime;
 
     public ClearManager(WorldClear plugin) {
         this.plugin = plugin;
+        this.state = new ScheduleState(plugin.getDataFolder().toPath().resolve("schedule-state.properties"),
+                plugin.getLogger());
+        this.resumeDeadlines = plugin.getConfigManager().isResumeEnabled() ? state.load() : new HashMap<>();
+        loadSchedules();
+    }
+
+    /**
+     * Rebuilds the running schedules from the compiled schedule profiles.
+     * Every profile is shifted by its own stagger offset, so clears of
+     * different worlds don't start on the same tick. In a cluster the offset
+     * also separates this server from the others.
+     */
+    public void loadSchedules() {
+        stopAutoClear();
+
+        List<ScheduleProfile> profiles = plugin.getConfigManager().getScheduleProfiles();
+        long stagger = plugin.getConfigManager().getStaggerSeconds();
+        ClusterCoordinator cluster = plugin.getClusterCoordinator();
+        if (cluster != null) {
+            cluster.fitSlots(profiles.size(), profiles.stream()
+                    .mapToLong(ScheduleProfile::intervalSeconds).min().getAsLong());
+        }
+        List<ClearSchedule> loaded = new ArrayList<>(profiles.size());
+        for (int i = 0; i < profiles.size(); i++) {
+            long offset = cluster != null ? cluster.getSlotOffsetSeconds(i) : i * stagger;
+            loaded.add(new ClearSchedule(profiles.get(i), offset, false));
+        }
+
+        schedules = List.copyOf(loaded);
+        manualSchedule = new ClearSchedule(profiles.get(0), 0, true);
+
+        // Emergency clears cover every world like manual ones, with a shorter countdown
+        ScheduleProfile base = profiles.get(0);
+        emergencySchedule = new ClearSchedule(new ScheduleProfile("emergency", base.worlds(), base.environments(),
+                base.intervalSeconds(), plugin.getConfigManager().getEmergencyCountdown(), base.filter(), false),
+                0, true);
     }
 
     /**
      * Starts the automatic clear scheduler.
+     * The first start after enabling resumes the clear times saved before the last shutdown.
      */
     public void startAutoClear() {
         stopAutoClear();
 
-        long intervalSeconds = plugin.getConfigManager().getIntervalSeconds();
-        if (intervalSeconds < 60) {
-            plugin.getLogger().warning("Invalid interval. Auto clear not started.");
+        ConfigManager config = plugin.getConfigManager();
+        if (config.isTrickleMode()) {
+            trickleTask = new TrickleTask(plugin, () -> getTargets(manualSchedule, null),
+                    config.getTrickleChunksPerTick(), config.getTrickleMaxAgeTicks(),
+                    config.getTrickleMaxItemsPerChunk());
+            trickleTask.start();
+            plugin.getLogger().info("Auto clear started in trickle mode, removing items older than "
+                    + config.formatTime(config.getTrickleMaxAgeTicks() / 20L) + ".");
             return;
         }
 
-        long intervalTicks = intervalSeconds * 20L;
-        int countdownStart = plugin.getConfigManager().getCountdownStart();
+        for (ClearSchedule schedule : schedules) {
+            if (schedule.getProfile().intervalSeconds() < 60) {
+                plugin.getLogger().warning("Invalid interval. Auto clear not started for schedule "
+                        + schedule.getName() + ".");
+                continue;
+            }
+            Long resumeAt = resumeDeadlines.get(schedule.getName());
+            scheduleAutoClearTask(schedule, resumeAt != null ? resumeAt : 0L);
+        }
+        resumeDeadlines.clear();
+        saveState(false);
+
+        // Sample item density to start clears early when needed
+        if (plugin.getConfigManager().isAdaptiveEnabled()) {
+            long sampleTicks = plugin.getConfigManager().getAdaptiveSampleSeconds() * 20L;
+            samplerTask = plugin.getTimingWheel().schedule(new DensitySampler(plugin), sampleTicks, sampleTicks);
+        }
+
+        plugin.getLogger().info("Auto clear started with interval: " +
+                plugin.getConfigManager().getIntervalString());
+        for (ClearSchedule schedule : schedules) {
+            ScheduleProfile profile = schedule.getProfile();
+            if (!profile.isDefault() && schedule.isTimerRunning()) {
+                plugin.getLogger().info("Schedule " + profile.name() + " started for " + profile.describeWorlds()
+                        + " with interval: " + plugin.getConfigManager().formatTime(profile.intervalSeconds()));
+            }
+        }
+    }
+
+    /**
+     * Schedules the repeating clear task of a schedule so its next clear is
+     * a full interval plus its stagger offset away.
+     *
+     * @param schedule schedule to start
+     */
+    private void scheduleAutoClearTask(ClearSchedule schedule) {
+        scheduleAutoClearTask(schedule, 0L);
+    }
+
+    /**
+     * Schedules the repeating clear task of a schedule, resuming a saved clear time.
+     * A clear time that passed while the server was down is caught up right away,
+     * still shifted by the stagger offset. In a cluster the clear time is taken
+     * from the epoch-aligned clock instead, which survives restarts by itself.
+     *
+     * @param schedule schedule to start
+     * @param resumeAt saved clear time in epoch milliseconds, 0 to start a full interval
+     */
+    private void scheduleAutoClearTask(ClearSchedule schedule, long resumeAt) {
+        schedule.cancelTimer();
+
+        long intervalTicks = schedule.getProfile().intervalSeconds() * 20L;
+        long countdownTicks = schedule.getProfile().countdownStart() * 20L;
 
         // Calculate initial delay (interval minus countdown)
-        long initialDelay = intervalTicks - (countdownStart * 20L);
+        long initialDelay = intervalTicks - countdownTicks;
         if (initialDelay < 0) {
             initialDelay = intervalTicks;
         }
+        initialDelay += schedule.getOffsetSeconds() * 20L;
 
-        // Update next clear time
-        nextClearTime = System.currentTimeMillis() + (intervalSeconds * 1000L);
+        ClusterCoordinator cluster = plugin.getClusterCoordinator();
+        if (cluster != null) {
+            long now = System.currentTimeMillis();
+            long clearAt = cluster.getNextClearTime(intervalTicks * 50L, schedule.getOffsetSeconds() * 1000L,
+                    countdownTicks * 50L, now);
+            initialDelay = (clearAt - now) / 50L - countdownTicks;
+        } else if (resumeAt > 0) {
+            long remainingTicks = (resumeAt - System.currentTimeMillis()) / 50L;
+            if (remainingTicks <= 0) {
+                plugin.getLogger().info("Schedule " + schedule.getName()
+                        + " missed its clear while the server was down, catching up now.");
+                initialDelay = schedule.getOffsetSeconds() * 20L;
+            } else {
+                // A shortened interval takes effect right away
+                initialDelay = Math.min(initialDelay, Math.max(0, remainingTicks - countdownTicks));
+            }
+        }
 
-        // Schedule the repeating clear task
-        autoClearTask = new ClearTask(plugin).runTaskTimer(plugin, initialDelay, intervalTicks);
+        // Schedule the repeating clear task, its deadline also gives the next clear time
+        schedule.setTimer(plugin.getTimingWheel()
+                .schedule(new ClearTask(plugin, schedule), initialDelay, intervalTicks));
+    }
 
-        plugin.getLogger().info("Auto clear started with interval: " +
-                plugin.getConfigManager().getIntervalString());
+    /**
+     * Starts the countdown ahead of schedule and pushes the next regular clear
+     * of every schedule a full interval back.
+     */
+    public void startEarlyClear() {
+        for (ClearSchedule schedule : schedules) {
+            if (schedule.isTimerRunning()) {
+                scheduleAutoClearTask(schedule);
+            }
+        }
+        saveState(false);
+        startCountdown();
+    }
+
+    /**
+     * Starts an emergency clear with a short countdown and pushes the next regular
+     * clear of every schedule a full interval back. Its sweep isn't deferred on lagging ticks.
+     */
+    public void startEmergencyClear() {
+        for (ClearSchedule schedule : schedules) {
+            if (schedule.isTimerRunning()) {
+                scheduleAutoClearTask(schedule);
+            }
+        }
+        saveState(false);
+
+        plugin.getMessageManager().broadcast("clear-emergency", "seconds",
+                String.valueOf(emergencySchedule.getProfile().countdownStart()));
+        startCountdown(emergencySchedule);
+    }
+
+    /**
+     * Checks if an emergency clear is counting down.
+     *
+     * @return true if the emergency countdown runs
+     */
+    public boolean isEmergencyRunning() {
+        return emergencySchedule.isCountdownRunning();
+    }
+
+    /**
+     * Saves the next clear time of every running schedule, so it survives a restart.
+     *
+     * @param sync true to write on the calling thread, e.g. on shutdown
+     */
+    public void saveState(boolean sync) {
+        Map<String, Long> deadlines = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (ClearSchedule schedule : schedules) {
+            if (schedule.isTimerRunning()) {
+                deadlines.put(schedule.getName(), now + schedule.getNanosUntilClear() / 1_000_000L);
+            }
+        }
+
+        if (sync) {
+            state.save(deadlines);
+        } else {
+            state.saveAsync(deadlines, plugin.getWorkerPool());
+        }
     }
 
     /**
      * Stops the automatic clear scheduler.
      */
     public void stopAutoClear() {
-        if (autoClearTask != null) {
-            autoClearTask.cancel();
-            autoClearTask = null;
+        for (ClearSchedule schedule : schedules) {
+            schedule.cancelTimer();
+        }
+        if (trickleTask != null) {
+            trickleTask.stop();
+            trickleTask = null;
+        }
+        if (samplerTask != null) {
+            samplerTask.cancel();
+            samplerTask = null;
         }
         stopCountdown();
     }
 
     /**
-     * Starts the countdown before clearing.
+     * Starts the hotspot scan on its own interval, independent of auto clear.
+     */
+    public void startHotspotScan() {
+        stopHotspotScan();
+
+        if (!plugin.getConfigManager().isHotspotEnabled()) {
+            return;
+        }
+
+        long scanTicks = plugin.getConfigManager().getHotspotScanSeconds() * 20L;
+        hotspotTask = plugin.getTimingWheel().schedule(new HotspotTask(plugin,
+                world -> createClearer(world, plugin.getConfigManager().getScheduleProfile(world), null)),
+                scanTicks, scanTicks);
+    }
+
+    /**
+     * Stops the hotspot scan.
+     */
+    public void stopHotspotScan() {
+        if (hotspotTask != null) {
+            hotspotTask.cancel();
+            hotspotTask = null;
+        }
+    }
+
+    /**
+     * Starts merging nearby item stacks on its own interval, independent of auto clear.
+     */
+    public void startConsolidation() {
+        stopConsolidation();
+
+        if (!plugin.getConfigManager().isConsolidationEnabled()) {
+            return;
+        }
+
+        consolidation = new ConsolidationTask(plugin);
+        long intervalTicks = plugin.getConfigManager().getConsolidationIntervalSeconds() * 20L;
+        if (intervalTicks > 0) {
+            consolidationTask = plugin.getTimingWheel().schedule(consolidation, intervalTicks, intervalTicks);
+        }
+    }
+
+    /**
+     * Stops merging nearby item stacks.
+     */
+    public void stopConsolidation() {
+        if (consolidationTask != null) {
+            consolidationTask.cancel();
+            consolidationTask = null;
+        }
+        if (consolidation != null) {
+            consolidation.stop();
+            consolidation = null;
+        }
+    }
+
+    /**
+     * Starts the countdown of a manual clear covering every world.
      */
     public void startCountdown() {
-        stopCountdown();
+        startCountdown(manualSchedule);
+    }
+
+    /**
+     * Starts the countdown of a schedule before clearing.
+     * Starts merging nearby stacks during the countdown if consolidation runs as a pre-clear step.
+     *
+     * @param schedule schedule whose worlds are cleared
+     */
+    public void startCountdown(ClearSchedule schedule) {
+        schedule.stopCountdown();
 
-        int countdownStart = plugin.getConfigManager().getCountdownStart();
-        countdownTask = new CountdownTask(plugin, countdownStart).runTaskTimer(plugin, 0L, 20L);
+        if (consolidation != null && plugin.getConfigManager().isConsolidationPreClear()) {
+            consolidation.run();
+        }
+
+        CountdownFrames frames = schedule.getFrames();
+        if (frames == null) {
+            frames = CountdownFrames.render(plugin.getConfigManager(), plugin.getMessageManager(),
+                    schedule.getProfile().countdownStart());
+            schedule.setFrames(frames);
+        }
+
+        CountdownTask countdown = new CountdownTask(plugin, schedule, frames);
+        countdown.start();
+        schedule.startCountdown(countdown, plugin.getTimingWheel().schedule(countdown, 0L, 20L));
+
+        // Plan the clear while the countdown runs
+        if (plugin.getConfigManager().isPreScanEnabled() && frames.getStart() > 0) {
+            long clearAtNanos = System.nanoTime() + frames.getStart() * 1_000_000_000L;
+            schedule.setPreScan(new PreScan(getTargets(schedule, null), plugin.getTaskScheduler(),
+                    plugin.getWorkerPool(), plugin.getConfigManager().getTickBudgetNanos(), clearAtNanos,
+                    plugin.getTickMonitor(), plugin.getLogger()).start());
+        }
     }
 
     /**
-     * Stops any running countdown.
+     * Ends the countdown of a schedule and clears its worlds.
+     * The result is broadcast to the schedule's audience once the sweep is done.
+     *
+     * @param schedule schedule whose countdown reached zero
+     */
+    public void finishCountdown(ClearSchedule schedule) {
+        ClearPlan plan = schedule.takePlan();
+        schedule.stopCountdown();
+        if (schedule.isTimerRunning()) {
+            // Keep aligned clears from drifting off the shared clock
+            if (plugin.getClusterCoordinator() != null) {
+                scheduleAutoClearTask(schedule);
+            }
+            saveState(false);
+        }
+        clearItems(schedule, plan, count -> plugin.getMessageManager()
+                .broadcast(getAudience(schedule), "clear-success", "count", String.valueOf(count)));
+    }
+
+    /**
+     * Stops all running countdowns.
      */
     public void stopCountdown() {
-        if (countdownTask != null) {
-            countdownTask.cancel();
-            countdownTask = null;
+        if (manualSchedule != null) {
+            manualSchedule.stopCountdown();
+        }
+        if (emergencySchedule != null) {
+            emergencySchedule.stopCountdown();
+        }
+        for (ClearSchedule schedule : schedules) {
+            schedule.stopCountdown();
         }
     }
 
     /**
-     * Clears all dropped items from all worlds.
+     * Stops a running sweep without reporting its result, and drops queued ones.
+     */
+    public void stopSweep() {
+        pendingClears.clear();
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+
+    /**
+     * Clears all dropped items, and other entities selected by the filter, from all worlds.
+     *
+     * @param onComplete receives the number of items cleared once the sweep is done
+     */
+    public void clearItems(IntConsumer onComplete) {
+        clearItems(manualSchedule, null, onComplete);
+    }
+
+    /**
+     * Clears the worlds of a schedule, each with the filter of its own profile.
+     * On Folia every region clears its own chunks in parallel, otherwise the work
+     * is spread over several main thread ticks within the configured tick budget.
+     * Only one sweep runs at a time, a clear requested meanwhile starts once it is done.
      *
-     * @return number of items cleared
+     * @param schedule schedule whose worlds are cleared
+     * @param plan plan made during the countdown, or null to check every entity
+     * @param onComplete receives the number of items cleared once the sweep is done
      */
-    public int clearItems() {
-        int count = 0;
+    public void clearItems(ClearSchedule schedule, ClearPlan plan, IntConsumer onComplete) {
+        if (isSweepRunning()) {
+            pendingClears.add(new PendingClear(schedule, plan, onComplete));
+            return;
+        }
+
+        lastClearTime = System.currentTimeMillis();
 
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        List<ClearTarget> targets = getTargets(schedule, plan);
+        long startNanos = System.nanoTime();
+        IntConsumer done = count -> {
+            plugin.getMetrics().recordSweep(System.nanoTime() - startNanos);
+            plugin.getLostAndFound().flush();
+            sweepTask = null;
+            onComplete.accept(count);
+
+            PendingClear next = pendingClears.poll();
+            if (next != null) {
+                clearItems(next.schedule(), next.plan(), next.onComplete());
+            }
+        };
+
+        ConfigManager config = plugin.getConfigManager();
+        if (scheduler.isRegionized()) {
+            sweepTask = new RegionSweep(targets, scheduler, config.getMaxRemovalsPerTick(),
+                    plugin.getMetrics(), done).start();
+        } else {
+            TickMonitor monitor = schedule == emergencySchedule ? null : plugin.getTickMonitor();
+            sweepTask = new SweepTask(targets, config.getTickBudgetNanos(), monitor, config.getMaxRemovalsPerTick(),
+                    config.getMaxRemovalsPerViewer(), plugin.getMetrics(), done).start(scheduler);
+        }
+    }
+
+    /**
+     * Gets the worlds a schedule clears, each paired with the filter of the profile covering it.
+     *
+     * @param schedule schedule to resolve
+     * @param plan plan to follow, or null
+     * @return worlds to sweep
+     */
+    private List<ClearTarget> getTargets(ClearSchedule schedule, ClearPlan plan) {
+        ConfigManager config = plugin.getConfigManager();
+        List<ClearTarget> targets = new ArrayList<>();
         for (World world : Bukkit.getWorlds()) {
-            for (Entity entity : world.getEntities()) {
-                if (entity instanceof Item) {
-                    entity.remove();
-                    count++;
-                }
+            ScheduleProfile profile = config.getScheduleProfile(world);
+            if (schedule.covers(profile)) {
+                targets.add(new ClearTarget(world, createClearer(world, profile, plan)));
             }
         }
+        return targets;
+    }
+
+    private ChunkClearer createClearer(World world, ScheduleProfile profile, ClearPlan plan) {
+        LostAndFound lostAndFound = plugin.getConfigManager().isLostAndFoundEnabled() ? plugin.getLostAndFound() : null;
+        return new ChunkClearer(plugin.getItemTracker(), plugin.getLootProtection(), lostAndFound, profile.filter(),
+                plugin.getMetrics().world(world.getName()), plan != null ? plan.world(world) : null);
+    }
+
+    /**
+     * Starts removing the items saved in the unloaded chunks of a world.
+     *
+     * @param worldName name of the world
+     * @param world the world if it is loaded, null if only its folder exists
+     * @param worldFolder folder of the world
+     * @param sender receives progress reports
+     * @return false if a deep clean is already running
+     */
+    public boolean startDeepClean(String worldName, World world, Path worldFolder, CommandSender sender) {
+        if (deepCleanJob != null) {
+            return false;
+        }
+
+        ConfigManager config = plugin.getConfigManager();
+        ScheduleProfile profile = world != null ? config.getScheduleProfile(world) : config.getScheduleProfile(worldName);
+        ChunkClearer clearer = world != null ? createClearer(world, profile, null) : null;
+        DeepCleanJob job = new DeepCleanJob(plugin, worldName, world, worldFolder, profile.filter(), clearer, sender,
+                () -> deepCleanJob = null);
+        deepCleanJob = job;
+        job.start();
+        return true;
+    }
+
+    /**
+     * Stops the running deep clean, if any.
+     */
+    public void stopDeepClean() {
+        DeepCleanJob job = deepCleanJob;
+        deepCleanJob = null;
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Gets the running deep clean.
+     *
+     * @return the job, or null if none is running
+     */
+    public DeepCleanJob getDeepCleanJob() {
+        return deepCleanJob;
+    }
 
-        // Reset next clear time if auto clear is enabled
-        if (plugin.getConfigManager().isAutoClearEnabled()) {
-            long intervalSeconds = plugin.getConfigManager().getIntervalSeconds();
-            nextClearTime = System.currentTimeMillis() + (intervalSeconds * 1000L);
+    /**
+     * Gets who sees the countdown and result of a schedule.
+     *
+     * @param schedule schedule to resolve
+     * @return the console and every online player, or the players currently in the schedule's worlds,
+     *         without players who muted clear notices
+     */
+    public Audience getAudience(ClearSchedule schedule) {
+        NotifyPreferences preferences = plugin.getNotifyPreferences();
+        if (schedule.isServerBroadcast()) {
+            return preferences.audience(Bukkit.getOnlinePlayers(), true);
         }
 
-        return count;
+        ConfigManager config = plugin.getConfigManager();
+        List<Player> players = new ArrayList<>();
+        for (World world : Bukkit.getWorlds()) {
+            if (schedule.covers(config.getScheduleProfile(world))) {
+                players.addAll(world.getPlayers());
+            }
+        }
+        return preferences.audience(players, false);
     }
 
     /**
@@ -122,11 +576,11 @@ public class ClearManager {
     /**
      * Executes an immediate clear without countdown.
      *
-     * @return number of items cleared
+     * @param onComplete receives the number of items cleared once the sweep is done
      */
-    public int executeImmediateClear() {
+    public void executeImmediateClear(IntConsumer onComplete) {
         plugin.getMessageManager().broadcast("clear-now");
-        return clearItems();
+        clearItems(onComplete);
     }
 
     /**
@@ -135,12 +589,75 @@ public class ClearManager {
      * @return time remaining in seconds
      */
     public long getTimeUntilNextClear() {
-        if (!plugin.getConfigManager().isAutoClearEnabled() || autoClearTask == null) {
+        return getTimeUntilNextClear(schedules.get(0));
+    }
+
+    /**
+     * Gets the time remaining until the next clear of a schedule.
+     *
+     * @param schedule schedule to query
+     * @return time remaining in seconds, or -1 if the schedule isn't running
+     */
+    public long getTimeUntilNextClear(ClearSchedule schedule) {
+        if (!plugin.getConfigManager().isAutoClearEnabled() || !schedule.isTimerRunning()) {
             return -1;
         }
 
-        long remaining = (nextClearTime - System.currentTimeMillis()) / 1000L;
-        return Math.max(0, remaining);
+        // Rounded to the nearest second
+        return (schedule.getNanosUntilClear() + 500_000_000L) / 1_000_000_000L;
+    }
+
+    /**
+     * Gets the running schedules.
+     *
+     * @return schedules, the default schedule first
+     */
+    public List<ClearSchedule> getSchedules() {
+        return schedules;
+    }
+
+    /**
+     * Gets the time the last clear was started.
+     *
+     * @return epoch milliseconds, or 0 if nothing was cleared yet
+     */
+    public long getLastClearTime() {
+        return lastClearTime;
+    }
+
+    /**
+     * Checks if auto clear removes old items continuously instead of on an interval.
+     *
+     * @return true if the trickle clear is running
+     */
+    public boolean isTrickleRunning() {
+        return trickleTask != null;
+    }
+
+    /**
+     * Checks if a countdown is currently running.
+     *
+     * @return true if a countdown is in progress
+     */
+    public boolean isCountdownRunning() {
+        if (manualSchedule.isCountdownRunning() || emergencySchedule.isCountdownRunning()) {
+            return true;
+        }
+        for (ClearSchedule schedule : schedules) {
+            if (schedule.isCountdownRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a sweep is currently removing items.
+     *
+     * @return true if a sweep is in progress
+     */
+    public boolean isSweepRunning() {
+        return sweepTask != null;
     }
 
     /**
@@ -149,6 +666,20 @@ public class ClearManager {
      * @return true if auto clear is active
      */
     public boolean isAutoClearRunning() {
-        return autoClearTask != null;
+        if (trickleTask != null) {
+            return true;
+        }
+        for (ClearSchedule schedule : schedules) {
+            if (schedule.isTimerRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A clear waiting for the running sweep to finish.
+     */
+    private record PendingClear(ClearSchedule schedule, ClearPlan plan, IntConsumer onComplete) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package dev.nxms.worldclear.manager;
+
+import dev.nxms.worldclear.scheduler.TimingWheel;
+import dev.nxms.worldclear.task.ClearPlan;
+import dev.nxms.worldclear.task.CountdownFrames;
+import dev.nxms.worldclear.task.CountdownTask;
+import dev.nxms.worldclear.task.PreScan;
+
+/**
+ * Running state of a {@link ScheduleProfile}: its timer and countdown on the timing wheel.
+ * The global schedule is used for manual and adaptive clears and covers every world.
+ */
+public class ClearSchedule {
+
+    private final ScheduleProfile profile;
+    private final long offsetSeconds;
+    private final boolean global;
+
+    private TimingWheel.Timeout timer;
+    private TimingWheel.Timeout countdownTask;
+    private CountdownTask countdown;
+    private CountdownFrames frames;
+    private PreScan preScan;
+
+    ClearSchedule(ScheduleProfile profile, long offsetSeconds, boolean global) {
+        this.profile = profile;
+        this.offsetSeconds = offsetSeconds;
+        this.global = global;
+    }
+
+    public ScheduleProfile getProfile() {
+        return profile;
+    }
+
+    public String getName() {
+        return profile.name();
+    }
+
+    /**
+     * Gets how far this schedule's clears are shifted from the others.
+     *
+     * @return offset in seconds
+     */
+    public long getOffsetSeconds() {
+        return offsetSeconds;
+    }
+
+    /**
+     * Checks if this schedule clears every world with its own world's filter.
+     *
+     * @return true for manual and adaptive clears
+     */
+    public boolean isGlobal() {
+        return global;
+    }
+
+    /**
+     * Checks if countdowns and results are shown to everyone on the server.
+     *
+     * @return true if broadcasts are not limited to the schedule's worlds
+     */
+    public boolean isServerBroadcast() {
+        return global || !profile.worldBroadcast();
+    }
+
+    /**
+     * Checks if this schedule clears a world covered by the given profile.
+     *
+     * @param worldProfile profile covering the world
+     * @return true if the world is part of this schedule
+     */
+    public boolean covers(ScheduleProfile worldProfile) {
+        return global || profile.name().equals(worldProfile.name());
+    }
+
+    void setTimer(TimingWheel.Timeout timer) {
+        this.timer = timer;
+    }
+
+    void cancelTimer() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    CountdownFrames getFrames() {
+        return frames;
+    }
+
+    void setFrames(CountdownFrames frames) {
+        this.frames = frames;
+    }
+
+    void startCountdown(CountdownTask countdown, TimingWheel.Timeout countdownTask) {
+        this.countdown = countdown;
+        this.countdownTask = countdownTask;
+    }
+
+    void setPreScan(PreScan preScan) {
+        this.preScan = preScan;
+    }
+
+    /**
+     * Takes the plan made during the countdown.
+     *
+     * @return finished plan, or null if there is none yet
+     */
+    ClearPlan takePlan() {
+        ClearPlan plan = preScan != null ? preScan.getPlan() : null;
+        preScan = null;
+        return plan;
+    }
+
+    /**
+     * Stops the countdown and its pre-scan, and hides its frames.
+     */
+    void stopCountdown() {
+        if (preScan != null) {
+            preScan.cancel();
+            preScan = null;
+        }
+        if (countdownTask != null) {
+            countdownTask.cancel();
+            countdownTask = null;
+        }
+        if (countdown != null) {
+            countdown.stop();
+            countdown = null;
+        }
+    }
+
+    public boolean isCountdownRunning() {
+        return countdownTask != null;
+    }
+
+    public boolean isTimerRunning() {
+        return timer != null;
+    }
+
+    /**
+     * Gets the time until this schedule's next clear, read from the deadlines of its timers.
+     * The clear follows the countdown, which starts when the timer fires.
+     *
+     * @return nanoseconds until the next clear
+     */
+    long getNanosUntilClear() {
+        CountdownTask running = countdown;
+        TimingWheel.Timeout runningTask = countdownTask;
+        if (running != null && runningTask != null) {
+            return runningTask.getRemainingNanos() + running.getSecondsRemaining() * 1_000_000_000L;
+        }
+        return timer.getRemainingNanos() + profile.countdownStart() * 1_000_000_000L;
+    }
+}
@@ -1,19 +1,62 @@
 package dev.nxms.worldclear.manager;
 
 import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.filter.ClearFilter;
+import net.kyori.adventure.bossbar.BossBar;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Manages plugin configuration loading and access.
  * Handles config.yml operations and interval parsing.
+ * The config is parsed into an immutable {@link Snapshot} that is swapped in as a whole.
+ * Commands patch the values they change into a copy of the snapshot and compare-and-set it,
+ * their changes are written to disk on another thread and replayed over reloads that read the file before that.
  */
 public class ConfigManager {
 
+    private static final String FILE_NAME = "config.yml";
+
     private final WorldClear plugin;
-    private FileConfiguration config;
+    private final Path file;
+    // Defaults from the jar, parsed once and only read afterwards
+    private final YamlConfiguration defaults;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // Values set by commands, kept until a reload that read them from the file is applied
+    private final List<Edit> edits = new ArrayList<>();
+    private long editCount;
+
+    // Coalesces saves, only the newest snapshot is written
+    private final AtomicBoolean pendingWrite = new AtomicBoolean();
+    private final Object writeLock = new Object();
 
     // Pattern for parsing time intervals (e.g., 1d2h30m, 30m, 2h)
     private static final Pattern INTERVAL_PATTERN = Pattern.compile(
@@ -23,16 +66,327 @@ public class ConfigManager {
 
     public ConfigManager(WorldClear plugin) {
         this.plugin = plugin;
-        reload();
+        this.file = plugin.getDataFolder().toPath().resolve(FILE_NAME);
+        this.defaults = loadDefaults();
+        try {
+            this.snapshot.set(load());
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLogger().severe("Failed to load " + FILE_NAME + ", using the defaults: " + e.getMessage());
+            this.snapshot.set(compile(withDefaults(new YamlConfiguration()), "", 0));
+        }
+    }
+
+    /**
+     * Reads and parses the configuration without applying it.
+     * Pending saves are written first, so changes made by commands aren't lost.
+     * Safe to call on any thread.
+     *
+     * @return parsed configuration
+     * @throws IOException if the file can't be read
+     * @throws InvalidConfigurationException if the file isn't valid YAML
+     */
+    public Snapshot load() throws IOException, InvalidConfigurationException {
+        long editMark;
+        synchronized (edits) {
+            editMark = editCount;
+        }
+        flush();
+        if (!Files.exists(file)) {
+            plugin.saveResource(FILE_NAME, false);
+        }
+
+        String source = Files.readString(file, StandardCharsets.UTF_8);
+        YamlConfiguration config = withDefaults(new YamlConfiguration());
+        config.loadFromString(source);
+        return compile(config, source, editMark);
+    }
+
+    /**
+     * Swaps in a parsed configuration.
+     * Values commands set after it was read are set again, so a reload doesn't undo them.
+     *
+     * @param loaded configuration from {@link #load()}
+     */
+    public void apply(Snapshot loaded) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            List<Edit> missed;
+            synchronized (edits) {
+                edits.removeIf(edit -> edit.sequence() < loaded.editMark);
+                missed = List.copyOf(edits);
+            }
+            if (snapshot.compareAndSet(current, missed.isEmpty() ? loaded : edit(loaded, missed))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a pending save on the calling thread, e.g. when the plugin is disabled.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            if (pendingWrite.getAndSet(false)) {
+                write(snapshot.get().serialize());
+            }
+        }
+    }
+
+    private YamlConfiguration loadDefaults() {
+        InputStream defaultStream = plugin.getResource(FILE_NAME);
+        if (defaultStream == null) {
+            return null;
+        }
+        return YamlConfiguration.loadConfiguration(new InputStreamReader(defaultStream, StandardCharsets.UTF_8));
+    }
+
+    private YamlConfiguration withDefaults(YamlConfiguration config) {
+        if (defaults != null) {
+            config.setDefaults(defaults);
+        }
+        return config;
+    }
+
+    /**
+     * Sets a value in a new snapshot and swaps it in, retrying if another change got there first.
+     * The newest snapshot is then written on the worker pool, saves queued before the write
+     * starts are merged into one.
+     */
+    private void set(String path, Object value) {
+        Edit change;
+        synchronized (edits) {
+            change = new Edit(editCount++, path, value);
+            edits.add(change);
+        }
+
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (snapshot.compareAndSet(current, edit(current, List.of(change)))) {
+                break;
+            }
+        }
+        if (!pendingWrite.getAndSet(true)) {
+            plugin.getWorkerPool().execute(this::flush);
+        }
+    }
+
+    /**
+     * Copies a snapshot with values changed. Only the changed values are patched in,
+     * the filters and schedules are not compiled again.
+     */
+    private Snapshot edit(Snapshot base, List<Edit> changes) {
+        Snapshot copy = base.copy();
+        List<Edit> applied = new ArrayList<>(base.changes);
+        for (Edit change : changes) {
+            switch (change.path()) {
+                case "auto-clear.enabled" -> copy.autoClearEnabled = (Boolean) change.value();
+                case "auto-clear.interval" -> copy.setInterval((String) change.value());
+                default -> throw new IllegalArgumentException("Setting can't be changed by a command: " + change.path());
+            }
+            applied.add(change);
+        }
+        copy.changes = List.copyOf(applied);
+        return copy;
+    }
+
+    private void write(String content) {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save " + FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compiles the filter, the default schedule from the auto-clear settings and
+     * one schedule for every profile in the schedules section.
+     * Profiles without worlds or with an invalid interval are skipped with a warning.
+     */
+    private Snapshot compile(FileConfiguration config, String source, long editMark) {
+        ClearFilter clearFilter = ClearFilter.compile(config.getConfigurationSection("filter"), plugin.getLogger());
+        String defaultInterval = config.getString("auto-clear.interval", "30m");
+        int defaultCountdown = config.getInt("countdown.start-at", 10);
+
+        List<ScheduleProfile> profiles = new ArrayList<>();
+        Map<String, ScheduleProfile> byWorld = new HashMap<>();
+        Map<World.Environment, ScheduleProfile> byEnvironment = new EnumMap<>(World.Environment.class);
+        profiles.add(new ScheduleProfile(ScheduleProfile.DEFAULT, Set.of(), Set.of(), parseInterval(defaultInterval),
+                defaultCountdown, clearFilter, false));
+
+        Set<String> inheritedIntervals = new HashSet<>();
+        ConfigurationSection section = config.getConfigurationSection("schedules");
+        if (section != null) {
+            for (String name : section.getKeys(false)) {
+                ConfigurationSection profile = section.getConfigurationSection(name);
+                if (profile == null) {
+                    continue;
+                }
+
+                Set<String> worlds = new HashSet<>();
+                for (String world : profile.getStringList("worlds")) {
+                    String key = world.toLowerCase(Locale.ROOT);
+                    if (byWorld.containsKey(key)) {
+                        plugin.getLogger().warning("World " + world + " is already used by schedule "
+                                + byWorld.get(key).name() + ", ignoring it in schedule " + name);
+                        continue;
+                    }
+                    worlds.add(key);
+                }
+
+                Set<World.Environment> environments = EnumSet.noneOf(World.Environment.class);
+                for (String environment : profile.getStringList("environments")) {
+                    try {
+                        World.Environment value = World.Environment.valueOf(environment.toUpperCase(Locale.ROOT));
+                        if (byEnvironment.containsKey(value)) {
+                            plugin.getLogger().warning("Environment " + environment + " is already used by schedule "
+                                    + byEnvironment.get(value).name() + ", ignoring it in schedule " + name);
+                            continue;
+                        }
+                        environments.add(value);
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().warning("Unknown environment in schedule " + name + ": " + environment);
+                    }
+                }
+
+                if (worlds.isEmpty() && environments.isEmpty()) {
+                    plugin.getLogger().warning("Schedule " + name + " has no worlds. Skipping it.");
+                    continue;
+                }
+
+                String ownInterval = profile.getString("interval");
+                long interval = parseInterval(ownInterval != null ? ownInterval : defaultInterval);
+                if (interval < 60) {
+                    plugin.getLogger().warning("Invalid interval in schedule " + name + ". Skipping it.");
+                    continue;
+                }
+
+                ClearFilter filter = profile.isConfigurationSection("filter")
+                        ? ClearFilter.compile(profile.getConfigurationSection("filter"), plugin.getLogger())
+                        : clearFilter;
+                ScheduleProfile compiled = new ScheduleProfile(name, Set.copyOf(worlds), Set.copyOf(environments), interval,
+                        profile.getInt("countdown", defaultCountdown), filter,
+                        !profile.getString("broadcast", "world").equalsIgnoreCase("all"));
+
+                profiles.add(compiled);
+                if (ownInterval == null) {
+                    inheritedIntervals.add(name);
+                }
+                for (String world : worlds) {
+                    byWorld.put(world, compiled);
+                }
+                for (World.Environment environment : environments) {
+                    byEnvironment.put(environment, compiled);
+                }
+            }
+        }
+
+        return new Snapshot(config, source, editMark, clearFilter, List.copyOf(profiles), Map.copyOf(byWorld),
+                Collections.unmodifiableMap(byEnvironment), Set.copyOf(inheritedIntervals));
+    }
+
+    /**
+     * Gets all schedule profiles compiled on the last reload.
+     *
+     * @return profiles, the default profile first
+     */
+    public List<ScheduleProfile> getScheduleProfiles() {
+        return snapshot.get().scheduleProfiles;
+    }
+
+    /**
+     * Gets the schedule profile that covers a world.
+     *
+     * @param world world to look up
+     * @return the profile listing the world or its dimension, or the default profile
+     */
+    public ScheduleProfile getScheduleProfile(World world) {
+        Snapshot current = snapshot.get();
+        ScheduleProfile profile = current.worldProfiles.get(world.getName().toLowerCase(Locale.ROOT));
+        if (profile == null) {
+            profile = current.environmentProfiles.get(world.getEnvironment());
+        }
+        return profile != null ? profile : current.scheduleProfiles.get(0);
+    }
+
+    /**
+     * Gets the schedule profile that covers a world that isn't loaded, by name only.
+     *
+     * @param worldName name of the world
+     * @return the profile listing the world, or the default profile
+     */
+    public ScheduleProfile getScheduleProfile(String worldName) {
+        Snapshot current = snapshot.get();
+        ScheduleProfile profile = current.worldProfiles.get(worldName.toLowerCase(Locale.ROOT));
+        return profile != null ? profile : current.scheduleProfiles.get(0);
     }
 
     /**
-     * Reloads the configuration from disk.
+     * Gets the offset between the clears of consecutive schedule profiles.
+     *
+     * @return stagger in seconds
      */
-    public void reload() {
-        plugin.saveDefaultConfig();
-        plugin.reloadConfig();
-        this.config = plugin.getConfig();
+    public int getStaggerSeconds() {
+        return snapshot.get().staggerSeconds;
+    }
+
+    /**
+     * Checks if auto clear removes old items continuously instead of clearing on an interval.
+     *
+     * @return true for the trickle mode
+     */
+    public boolean isTrickleMode() {
+        return snapshot.get().trickleMode;
+    }
+
+    /**
+     * Gets how many chunks the trickle clear looks at per tick.
+     *
+     * @return chunks per tick
+     */
+    public int getTrickleChunksPerTick() {
+        return snapshot.get().trickleChunksPerTick;
+    }
+
+    /**
+     * Gets the age at which the trickle clear removes items.
+     *
+     * @return age in ticks
+     */
+    public int getTrickleMaxAgeTicks() {
+        return snapshot.get().trickleMaxAgeTicks;
+    }
+
+    /**
+     * Gets how many items the trickle clear leaves in a chunk.
+     *
+     * @return per-chunk item limit, 0 for no limit
+     */
+    public int getTrickleMaxItemsPerChunk() {
+        return snapshot.get().trickleMaxItemsPerChunk;
+    }
+
+    /**
+     * Checks if schedules resume their clear times after a restart.
+     *
+     * @return true if clear times are resumed
+     */
+    public boolean isResumeEnabled() {
+        return snapshot.get().resumeEnabled;
+    }
+
+    /**
+     * Gets the filter compiled from the filter section on the last reload.
+     *
+     * @return compiled clear filter
+     */
+    public ClearFilter getClearFilter() {
+        return snapshot.get().clearFilter;
     }
 
     /**
@@ -41,7 +395,16 @@ public class ConfigManager {
      * @return language code (e.g., "en", "pl")
      */
     public String getLanguage() {
-        return config.getString("language", "en");
+        return snapshot.get().language;
+    }
+
+    /**
+     * Checks if players get messages in the language of their client.
+     *
+     * @return true if messages follow the client locale of each player
+     */
+    public boolean isPerPlayerLanguage() {
+        return snapshot.get().perPlayerLanguage;
     }
 
     /**
@@ -50,17 +413,16 @@ public class ConfigManager {
      * @return true if auto clear is enabled
      */
     public boolean isAutoClearEnabled() {
-        return config.getBoolean("auto-clear.enabled", true);
+        return snapshot.get().autoClearEnabled;
     }
 
     /**
-     * Sets the auto clear enabled state and saves to config.
+     * Sets the auto clear enabled state and saves to config on another thread.
      *
      * @param enabled new enabled state
      */
     public void setAutoClearEnabled(boolean enabled) {
-        config.set("auto-clear.enabled", enabled);
-        plugin.saveConfig();
+        set("auto-clear.enabled", enabled);
     }
 
     /**
@@ -69,8 +431,7 @@ public class ConfigManager {
      * @return interval in seconds
      */
     public long getIntervalSeconds() {
-        String interval = config.getString("auto-clear.interval", "30m");
-        return parseInterval(interval);
+        return snapshot.get().intervalSeconds;
     }
 
     /**
@@ -79,17 +440,16 @@ public class ConfigManager {
      * @return interval string (e.g., "30m", "1h")
      */
     public String getIntervalString() {
-        return config.getString("auto-clear.interval", "30m");
+        return snapshot.get().intervalString;
     }
 
     /**
-     * Sets the clear interval and saves to config.
+     * Sets the clear interval, recompiles the schedules and saves to config on another thread.
      *
      * @param interval interval string
      */
     public void setInterval(String interval) {
-        config.set("auto-clear.interval", interval);
-        plugin.saveConfig();
+        set("auto-clear.interval", interval);
     }
 
     /**
@@ -98,7 +458,473 @@ public class ConfigManager {
      * @return countdown start seconds
      */
     public int getCountdownStart() {
-        return config.getInt("countdown.start-at", 10);
+        return snapshot.get().countdownStart;
+    }
+
+    /**
+     * Gets the countdown seconds a channel is shown at.
+     * A channel can be set to "all", "none" or a list of seconds.
+     *
+     * @param channel channel name (chat, action-bar, title, boss-bar)
+     * @param start second the countdown starts at
+     * @return flags indexed by seconds remaining
+     */
+    public boolean[] getCountdownMarks(String channel, int start) {
+        boolean[] marks = new boolean[start + 1];
+        int[] seconds = snapshot.get().countdownChannels.getOrDefault(channel, new int[0]);
+        if (seconds == null) {
+            Arrays.fill(marks, 1, marks.length, true);
+            return marks;
+        }
+
+        for (int second : seconds) {
+            if (second >= 1 && second <= start) {
+                marks[second] = true;
+            }
+        }
+        return marks;
+    }
+
+    /**
+     * Gets the color of the countdown boss bar.
+     *
+     * @return boss bar color
+     */
+    public BossBar.Color getBossBarColor() {
+        return snapshot.get().bossBarColor;
+    }
+
+    /**
+     * Gets the overlay of the countdown boss bar.
+     *
+     * @return boss bar overlay
+     */
+    public BossBar.Overlay getBossBarOverlay() {
+        return snapshot.get().bossBarOverlay;
+    }
+
+    /**
+     * Gets the time a sweep may spend removing items in a single tick.
+     *
+     * @return tick budget in nanoseconds
+     */
+    public long getTickBudgetNanos() {
+        return snapshot.get().tickBudgetNanos;
+    }
+
+    /**
+     * Gets how many entities a clear removes per tick at most.
+     *
+     * @return removals per tick, 0 for no limit
+     */
+    public int getMaxRemovalsPerTick() {
+        return snapshot.get().maxRemovalsPerTick;
+    }
+
+    /**
+     * Gets how many removals a single player may see per tick during a clear.
+     *
+     * @return removals per viewer and tick, 0 for no limit
+     */
+    public int getMaxRemovalsPerViewer() {
+        return snapshot.get().maxRemovalsPerViewer;
+    }
+
+    /**
+     * Checks if clears are planned on worker threads while the countdown runs.
+     *
+     * @return true if the pre-scan is enabled
+     */
+    public boolean isPreScanEnabled() {
+        return snapshot.get().preScanEnabled;
+    }
+
+    /**
+     * Gets the number of worker threads for work done off the server threads.
+     *
+     * @return thread count, at least 1
+     */
+    public int getWorkerThreads() {
+        return snapshot.get().workerThreads;
+    }
+
+    /**
+     * Checks if adaptive clearing based on item density is enabled.
+     *
+     * @return true if adaptive clearing is enabled
+     */
+    public boolean isAdaptiveEnabled() {
+        return snapshot.get().adaptiveEnabled;
+    }
+
+    /**
+     * Gets how often item density is sampled.
+     *
+     * @return sample interval in seconds
+     */
+    public int getAdaptiveSampleSeconds() {
+        return snapshot.get().adaptiveSampleSeconds;
+    }
+
+    /**
+     * Gets the total dropped item count that starts a clear early.
+     *
+     * @return item threshold
+     */
+    public int getAdaptiveMaxItems() {
+        return snapshot.get().adaptiveMaxItems;
+    }
+
+    /**
+     * Gets the dropped item count in a single chunk that starts a clear early.
+     *
+     * @return per-chunk item threshold
+     */
+    public int getAdaptiveMaxChunkItems() {
+        return snapshot.get().adaptiveMaxChunkItems;
+    }
+
+    /**
+     * Gets the average tick time above which the server counts as lagging.
+     *
+     * @return milliseconds per tick
+     */
+    public double getAdaptiveMaxMspt() {
+        return snapshot.get().adaptiveMaxMspt;
+    }
+
+    /**
+     * Gets the TPS below which the server counts as lagging.
+     *
+     * @return ticks per second
+     */
+    public double getAdaptiveMinTps() {
+        return snapshot.get().adaptiveMinTps;
+    }
+
+    /**
+     * Gets the factor applied to item thresholds while the server is lagging.
+     *
+     * @return threshold multiplier
+     */
+    public double getAdaptiveLagMultiplier() {
+        return snapshot.get().adaptiveLagMultiplier;
+    }
+
+    /**
+     * Gets the percentage of the thresholds samples must fall below before
+     * another early clear can be triggered.
+     *
+     * @return re-arm percentage
+     */
+    public int getAdaptiveRearmPercent() {
+        return snapshot.get().adaptiveRearmPercent;
+    }
+
+    /**
+     * Gets the minimum time between two clears started by adaptive clearing.
+     *
+     * @return minimum gap in seconds
+     */
+    public long getAdaptiveMinGapSeconds() {
+        return snapshot.get().adaptiveMinGapSeconds;
+    }
+
+    /**
+     * Gets the average tick time above which sweep and pre-scan slices are deferred.
+     *
+     * @return tick time in milliseconds, 0 to never defer
+     */
+    public double getDeferMspt() {
+        return snapshot.get().deferMspt;
+    }
+
+    /**
+     * Checks if emergency clears are enabled.
+     *
+     * @return true if item floods on a lagging server are cleared right away
+     */
+    public boolean isEmergencyEnabled() {
+        return snapshot.get().emergencyEnabled;
+    }
+
+    /**
+     * Gets the dropped item count an emergency clear needs.
+     *
+     * @return total item threshold
+     */
+    public int getEmergencyMaxItems() {
+        return snapshot.get().emergencyMaxItems;
+    }
+
+    /**
+     * Gets the average tick time an emergency clear needs.
+     *
+     * @return tick time in milliseconds
+     */
+    public double getEmergencyMinMspt() {
+        return snapshot.get().emergencyMinMspt;
+    }
+
+    /**
+     * Gets the countdown of an emergency clear.
+     *
+     * @return countdown in seconds
+     */
+    public int getEmergencyCountdown() {
+        return snapshot.get().emergencyCountdown;
+    }
+
+    /**
+     * Gets the minimum time between two emergency clears.
+     *
+     * @return cooldown in seconds
+     */
+    public long getEmergencyCooldownSeconds() {
+        return snapshot.get().emergencyCooldownSeconds;
+    }
+
+    /**
+     * Checks if clearing of overloaded chunks is enabled.
+     *
+     * @return true if hotspot clearing is enabled
+     */
+    public boolean isHotspotEnabled() {
+        return snapshot.get().hotspotEnabled;
+    }
+
+    /**
+     * Gets how often chunks are scanned for hotspots.
+     *
+     * @return scan interval in seconds
+     */
+    public int getHotspotScanSeconds() {
+        return snapshot.get().hotspotScanSeconds;
+    }
+
+    /**
+     * Gets the dropped item count above which a chunk is cleared.
+     *
+     * @return per-chunk item threshold
+     */
+    public int getHotspotMaxItems() {
+        return snapshot.get().hotspotMaxItems;
+    }
+
+    /**
+     * Gets how many of the newest stacks are kept in a cleared chunk.
+     *
+     * @return number of stacks to keep
+     */
+    public int getHotspotKeepNewest() {
+        return snapshot.get().hotspotKeepNewest;
+    }
+
+    /**
+     * Checks if merging of nearby item stacks is enabled.
+     *
+     * @return true if consolidation is enabled
+     */
+    public boolean isConsolidationEnabled() {
+        return snapshot.get().consolidationEnabled;
+    }
+
+    /**
+     * Gets how often nearby item stacks are merged.
+     *
+     * @return interval in seconds, 0 to only merge before clears
+     */
+    public int getConsolidationIntervalSeconds() {
+        return snapshot.get().consolidationIntervalSeconds;
+    }
+
+    /**
+     * Gets the size of the cells stacks must share to be merged.
+     *
+     * @return cell size in blocks
+     */
+    public double getConsolidationRadius() {
+        return snapshot.get().consolidationRadius;
+    }
+
+    /**
+     * Checks if stacks are merged when a countdown starts.
+     *
+     * @return true if consolidation runs before clears
+     */
+    public boolean isConsolidationPreClear() {
+        return snapshot.get().consolidationPreClear;
+    }
+
+    /**
+     * Checks if death drops and thrown items are kept by clears for a while.
+     *
+     * @return true if loot protection is enabled
+     */
+    public boolean isLootProtectionEnabled() {
+        return snapshot.get().lootProtectionEnabled;
+    }
+
+    /**
+     * Gets how long the drops of a dead player are protected.
+     *
+     * @return grace period in seconds, 0 to not protect them
+     */
+    public long getLootProtectionDeathSeconds() {
+        return snapshot.get().lootProtectionDeathSeconds;
+    }
+
+    /**
+     * Gets how long items thrown by players are protected.
+     *
+     * @return grace period in seconds, 0 to not protect them
+     */
+    public long getLootProtectionThrownSeconds() {
+        return snapshot.get().lootProtectionThrownSeconds;
+    }
+
+    /**
+     * Checks if items removed by clears are kept for recovery.
+     *
+     * @return true if the lost and found is enabled
+     */
+    public boolean isLostAndFoundEnabled() {
+        return snapshot.get().lostAndFoundEnabled;
+    }
+
+    /**
+     * Gets the size at which a new lost and found segment file is started.
+     *
+     * @return segment size in bytes
+     */
+    public long getLostAndFoundSegmentBytes() {
+        return snapshot.get().lostAndFoundSegmentBytes;
+    }
+
+    /**
+     * Gets the disk space the lost and found may use per world.
+     *
+     * @return size limit in bytes
+     */
+    public long getLostAndFoundMaxBytes() {
+        return snapshot.get().lostAndFoundMaxBytes;
+    }
+
+    /**
+     * Gets how long cleared items are kept.
+     *
+     * @return age limit in seconds, 0 to keep them until the size limit is reached
+     */
+    public long getLostAndFoundMaxAgeSeconds() {
+        return snapshot.get().lostAndFoundMaxAgeSeconds;
+    }
+
+    /**
+     * Gets how many unloaded chunks a deep clean of a loaded world loads at once to clear them.
+     *
+     * @return chunks loading at the same time
+     */
+    public int getDeepCleanMaxLoading() {
+        return snapshot.get().deepCleanMaxLoading;
+    }
+
+    /**
+     * Checks if clears are coordinated with the other servers of the network.
+     *
+     * @return true if cluster coordination is enabled
+     */
+    public boolean isClusterEnabled() {
+        return snapshot.get().clusterEnabled;
+    }
+
+    /**
+     * Gets the transport cluster messages are sent over.
+     *
+     * @return "plugin-message" or "local"
+     */
+    public String getClusterTransport() {
+        return snapshot.get().clusterTransport;
+    }
+
+    /**
+     * Gets the unique name of this server in the network.
+     *
+     * @return node id
+     */
+    public String getClusterNodeId() {
+        return snapshot.get().clusterNodeId;
+    }
+
+    /**
+     * Gets the number of servers in the network.
+     *
+     * @return node count
+     */
+    public int getClusterNodes() {
+        return snapshot.get().clusterNodes;
+    }
+
+    /**
+     * Gets the position of this server in the network.
+     *
+     * @return node index from 0 to the node count minus one
+     */
+    public int getClusterNodeIndex() {
+        return snapshot.get().clusterNodeIndex;
+    }
+
+    /**
+     * Gets the time between the clears of consecutive servers.
+     *
+     * @return stagger in seconds
+     */
+    public int getClusterNodeStagger() {
+        return snapshot.get().clusterNodeStagger;
+    }
+
+    /**
+     * Gets the time until a network clear starts on the first server.
+     *
+     * @return lead time in seconds
+     */
+    public int getClusterNetworkLead() {
+        return snapshot.get().clusterNetworkLead;
+    }
+
+    /**
+     * Checks if clear metrics are registered as a JMX MBean.
+     *
+     * @return true if the MBean is registered
+     */
+    public boolean isMetricsJmxEnabled() {
+        return snapshot.get().metricsJmxEnabled;
+    }
+
+    /**
+     * Checks if clear metrics are served in the Prometheus text format.
+     *
+     * @return true if the HTTP endpoint is enabled
+     */
+    public boolean isPrometheusEnabled() {
+        return snapshot.get().prometheusEnabled;
+    }
+
+    /**
+     * Gets the address the Prometheus endpoint binds to.
+     *
+     * @return host name or address
+     */
+    public String getPrometheusHost() {
+        return snapshot.get().prometheusHost;
+    }
+
+    /**
+     * Gets the port the Prometheus endpoint listens on.
+     *
+     * @return port number
+     */
+    public int getPrometheusPort() {
+        return snapshot.get().prometheusPort;
     }
 
     /**
@@ -108,7 +934,7 @@ public class ConfigManager {
      * @param interval interval string to parse
      * @return total seconds, or -1 if invalid
      */
-    public long parseInterval(String interval) {
+    public static long parseInterval(String interval) {
         if (interval == null || interval.isEmpty()) {
             return -1;
         }
@@ -185,4 +1011,283 @@ public class ConfigManager {
 
         return sb.toString().trim();
     }
-}
\ No newline at end of file
+
+    /**
+     * Configuration parsed on a reload, with its compiled filter and schedules and every value
+     * the getters return. Never changed once published, commands swap in a patched copy instead.
+     */
+    public static final class Snapshot implements Cloneable {
+
+        private static final String[] COUNTDOWN_CHANNELS = {"chat", "action-bar", "title", "boss-bar"};
+
+        // YAML the snapshot was compiled from, the changes are set over it when it is saved
+        private final String source;
+        // Number of command edits made before the file was read
+        private final long editMark;
+        private final ClearFilter clearFilter;
+        // Profiles without an interval of their own, they follow the auto-clear interval
+        private final Set<String> inheritedIntervals;
+
+        // Set by commands, only assigned on a copy before it is published
+        private List<Edit> changes = List.of();
+        private List<ScheduleProfile> scheduleProfiles;
+        private Map<String, ScheduleProfile> worldProfiles;
+        private Map<World.Environment, ScheduleProfile> environmentProfiles;
+        private boolean autoClearEnabled;
+        private long intervalSeconds;
+        private String intervalString;
+
+        private final String language;
+        private final boolean perPlayerLanguage;
+        // Seconds each countdown channel is shown at, null for every second
+        private final Map<String, int[]> countdownChannels;
+        private final int staggerSeconds;
+        private final boolean trickleMode;
+        private final int trickleChunksPerTick;
+        private final int trickleMaxAgeTicks;
+        private final int trickleMaxItemsPerChunk;
+        private final boolean resumeEnabled;
+        private final int countdownStart;
+        private final BossBar.Color bossBarColor;
+        private final BossBar.Overlay bossBarOverlay;
+        private final long tickBudgetNanos;
+        private final int maxRemovalsPerTick;
+        private final int maxRemovalsPerViewer;
+        private final boolean preScanEnabled;
+        private final int workerThreads;
+        private final boolean adaptiveEnabled;
+        private final int adaptiveSampleSeconds;
+        private final int adaptiveMaxItems;
+        private final int adaptiveMaxChunkItems;
+        private final double adaptiveMaxMspt;
+        private final double adaptiveMinTps;
+        private final double adaptiveLagMultiplier;
+        private final int adaptiveRearmPercent;
+        private final long adaptiveMinGapSeconds;
+        private final double deferMspt;
+        private final boolean emergencyEnabled;
+        private final int emergencyMaxItems;
+        private final double emergencyMinMspt;
+        private final int emergencyCountdown;
+        private final long emergencyCooldownSeconds;
+        private final boolean hotspotEnabled;
+        private final int hotspotScanSeconds;
+        private final int hotspotMaxItems;
+        private final int hotspotKeepNewest;
+        private final boolean consolidationEnabled;
+        private final int consolidationIntervalSeconds;
+        private final double consolidationRadius;
+        private final boolean consolidationPreClear;
+        private final boolean lootProtectionEnabled;
+        private final long lootProtectionDeathSeconds;
+        private final long lootProtectionThrownSeconds;
+        private final boolean lostAndFoundEnabled;
+        private final long lostAndFoundSegmentBytes;
+        private final long lostAndFoundMaxBytes;
+        private final long lostAndFoundMaxAgeSeconds;
+        private final int deepCleanMaxLoading;
+        private final boolean clusterEnabled;
+        private final String clusterTransport;
+        private final String clusterNodeId;
+        private final int clusterNodes;
+        private final int clusterNodeIndex;
+        private final int clusterNodeStagger;
+        private final int clusterNetworkLead;
+        private final boolean metricsJmxEnabled;
+        private final boolean prometheusEnabled;
+        private final String prometheusHost;
+        private final int prometheusPort;
+
+        private Snapshot(FileConfiguration config, String source, long editMark, ClearFilter clearFilter,
+                         List<ScheduleProfile> scheduleProfiles, Map<String, ScheduleProfile> worldProfiles,
+                         Map<World.Environment, ScheduleProfile> environmentProfiles, Set<String> inheritedIntervals) {
+            this.source = source;
+            this.editMark = editMark;
+            this.clearFilter = clearFilter;
+            this.inheritedIntervals = inheritedIntervals;
+            this.scheduleProfiles = scheduleProfiles;
+            this.worldProfiles = worldProfiles;
+            this.environmentProfiles = environmentProfiles;
+            this.language = config.getString("language", "en");
+            this.perPlayerLanguage = config.getBoolean("per-player-language", true);
+
+            Map<String, int[]> channels = new HashMap<>();
+            for (String channel : COUNTDOWN_CHANNELS) {
+                String path = "countdown.channels." + channel;
+                if (config.isList(path)) {
+                    channels.put(channel, config.getIntegerList(path).stream().mapToInt(Integer::intValue).toArray());
+                } else {
+                    // Chat shows every second unless configured otherwise
+                    String value = config.getString(path, channel.equals("chat") ? "all" : "none");
+                    channels.put(channel, value.equalsIgnoreCase("all") ? null : new int[0]);
+                }
+            }
+            this.countdownChannels = Collections.unmodifiableMap(channels);
+
+            this.staggerSeconds = Math.max(1, config.getInt("auto-clear.stagger", 13));
+            this.trickleMode = config.getString("auto-clear.mode", "interval").equalsIgnoreCase("trickle");
+            this.trickleChunksPerTick = Math.max(1, config.getInt("auto-clear.trickle.chunks-per-tick", 4));
+            this.trickleMaxAgeTicks = Math.max(1, config.getInt("auto-clear.trickle.max-age", 300)) * 20;
+            this.trickleMaxItemsPerChunk = Math.max(0, config.getInt("auto-clear.trickle.max-items-per-chunk", 64));
+            this.resumeEnabled = config.getBoolean("auto-clear.resume", true);
+            this.autoClearEnabled = config.getBoolean("auto-clear.enabled", true);
+            this.intervalString = config.getString("auto-clear.interval", "30m");
+            this.intervalSeconds = parseInterval(intervalString);
+            this.countdownStart = config.getInt("countdown.start-at", 10);
+            this.bossBarColor = parseColor(config.getString("countdown.boss-bar.color", "YELLOW"));
+            this.bossBarOverlay = parseOverlay(config.getString("countdown.boss-bar.overlay", "PROGRESS"));
+            this.tickBudgetNanos = (long) (Math.max(0.1, config.getDouble("clear.tick-budget-ms", 2.0)) * 1_000_000L);
+            this.maxRemovalsPerTick = Math.max(0, config.getInt("clear.max-removals-per-tick", 2000));
+            this.maxRemovalsPerViewer = Math.max(0, config.getInt("clear.max-removals-per-viewer", 250));
+            this.preScanEnabled = config.getBoolean("clear.pre-scan", true);
+            int threads = config.getInt("clear.worker-threads", 0);
+            this.workerThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            this.adaptiveEnabled = config.getBoolean("adaptive.enabled", false);
+            this.adaptiveSampleSeconds = Math.max(1, config.getInt("adaptive.sample-interval", 5));
+            this.adaptiveMaxItems = config.getInt("adaptive.max-items", 5000);
+            this.adaptiveMaxChunkItems = config.getInt("adaptive.max-items-per-chunk", 500);
+            this.adaptiveMaxMspt = config.getDouble("adaptive.max-mspt", 45.0);
+            this.adaptiveMinTps = config.getDouble("adaptive.min-tps", 18.0);
+            this.adaptiveLagMultiplier = config.getDouble("adaptive.lag-multiplier", 0.5);
+            this.adaptiveRearmPercent = config.getInt("adaptive.rearm-percent", 75);
+            this.adaptiveMinGapSeconds = Math.max(0, parseInterval(config.getString("adaptive.min-gap", "5m")));
+            this.deferMspt = Math.max(0, config.getDouble("tick-monitor.defer-mspt", 45.0));
+            this.emergencyEnabled = config.getBoolean("tick-monitor.emergency.enabled", false);
+            this.emergencyMaxItems = config.getInt("tick-monitor.emergency.max-items", 3000);
+            this.emergencyMinMspt = config.getDouble("tick-monitor.emergency.min-mspt", 45.0);
+            this.emergencyCountdown = Math.max(0, config.getInt("tick-monitor.emergency.countdown", 5));
+            this.emergencyCooldownSeconds = Math.max(0, parseInterval(
+                    config.getString("tick-monitor.emergency.cooldown", "2m")));
+            this.hotspotEnabled = config.getBoolean("hotspot.enabled", false);
+            this.hotspotScanSeconds = Math.max(1, config.getInt("hotspot.scan-interval", 30));
+            this.hotspotMaxItems = config.getInt("hotspot.max-items-per-chunk", 200);
+            this.hotspotKeepNewest = Math.max(0, config.getInt("hotspot.keep-newest", 0));
+            this.consolidationEnabled = config.getBoolean("consolidation.enabled", false);
+            this.consolidationIntervalSeconds = Math.max(0, config.getInt("consolidation.interval", 60));
+            this.consolidationRadius = Math.max(0.25, config.getDouble("consolidation.radius", 1.5));
+            this.consolidationPreClear = config.getBoolean("consolidation.pre-clear", true);
+            this.lootProtectionEnabled = config.getBoolean("loot-protection.enabled", true);
+            this.lootProtectionDeathSeconds = Math.max(0, config.getLong("loot-protection.death-drops", 300));
+            this.lootProtectionThrownSeconds = Math.max(0, config.getLong("loot-protection.thrown", 60));
+            this.lostAndFoundEnabled = config.getBoolean("lost-and-found.enabled", false);
+            this.lostAndFoundSegmentBytes = Math.min(1024 * 1024,
+                    Math.max(64, config.getLong("lost-and-found.segment-size", 4096))) * 1024L;
+            this.lostAndFoundMaxBytes = Math.max(1, config.getLong("lost-and-found.max-size", 64)) * 1024L * 1024L;
+            this.lostAndFoundMaxAgeSeconds = Math.max(0, parseInterval(
+                    config.getString("lost-and-found.max-age", "7d")));
+            this.deepCleanMaxLoading = Math.max(1, config.getInt("deep-clean.max-loading", 4));
+            this.clusterEnabled = config.getBoolean("cluster.enabled", false);
+            this.clusterTransport = config.getString("cluster.transport", "plugin-message").toLowerCase(Locale.ROOT);
+            this.clusterNodeId = config.getString("cluster.node-id", "server-1");
+            this.clusterNodes = Math.max(1, config.getInt("cluster.nodes", 1));
+            this.clusterNodeIndex = Math.min(clusterNodes - 1, Math.max(0, config.getInt("cluster.node-index", 0)));
+            this.clusterNodeStagger = Math.max(1, config.getInt("cluster.node-stagger", 5));
+            this.clusterNetworkLead = Math.max(0, config.getInt("cluster.network-lead", 3));
+            this.metricsJmxEnabled = config.getBoolean("metrics.jmx", true);
+            this.prometheusEnabled = config.getBoolean("metrics.prometheus.enabled", false);
+            this.prometheusHost = config.getString("metrics.prometheus.host", "127.0.0.1");
+            this.prometheusPort = config.getInt("metrics.prometheus.port", 9464);
+        }
+
+        private Snapshot copy() {
+            try {
+                return (Snapshot) clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        /**
+         * Sets the auto-clear interval on a copy, along with the default profile
+         * and the profiles that follow it.
+         */
+        private void setInterval(String interval) {
+            this.intervalString = interval;
+            this.intervalSeconds = parseInterval(interval);
+
+            Map<String, ScheduleProfile> replaced = new HashMap<>();
+            List<ScheduleProfile> profiles = new ArrayList<>(scheduleProfiles.size());
+            for (ScheduleProfile profile : scheduleProfiles) {
+                if (profile.isDefault() || inheritedIntervals.contains(profile.name())) {
+                    ScheduleProfile changed = new ScheduleProfile(profile.name(), profile.worlds(),
+                            profile.environments(), intervalSeconds, profile.countdownStart(),
+                            profile.filter(), profile.worldBroadcast());
+                    replaced.put(profile.name(), changed);
+                    profile = changed;
+                }
+                profiles.add(profile);
+            }
+
+            Map<String, ScheduleProfile> byWorld = new HashMap<>();
+            worldProfiles.forEach((world, profile) -> byWorld.put(world, replaced.getOrDefault(profile.name(), profile)));
+            Map<World.Environment, ScheduleProfile> byEnvironment = new EnumMap<>(World.Environment.class);
+            environmentProfiles.forEach((environment, profile) ->
+                    byEnvironment.put(environment, replaced.getOrDefault(profile.name(), profile)));
+
+            this.scheduleProfiles = List.copyOf(profiles);
+            this.worldProfiles = Map.copyOf(byWorld);
+            this.environmentProfiles = Collections.unmodifiableMap(byEnvironment);
+        }
+
+        /**
+         * Builds the YAML to save, the source with the changes of commands set over it.
+         */
+        private String serialize() {
+            if (changes.isEmpty()) {
+                return source;
+            }
+
+            YamlConfiguration config = new YamlConfiguration();
+            try {
+                config.loadFromString(source);
+            } catch (InvalidConfigurationException e) {
+                // Parsed before, when the snapshot was compiled
+                throw new IllegalStateException(e);
+            }
+            for (Edit change : changes) {
+                config.set(change.path(), change.value());
+            }
+            return config.saveToString();
+        }
+
+        private static BossBar.Color parseColor(String name) {
+            try {
+                return BossBar.Color.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return BossBar.Color.YELLOW;
+            }
+        }
+
+        private static BossBar.Overlay parseOverlay(String name) {
+            try {
+                return BossBar.Overlay.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return BossBar.Overlay.PROGRESS;
+            }
+        }
+
+        /**
+         * Gets the configured language code.
+         *
+         * @return language code (e.g., "en", "pl")
+         */
+        public String getLanguage() {
+            return language;
+        }
+
+        /**
+         * Checks if players get messages in the language of their client.
+         *
+         * @return true if messages follow the client locale of each player
+         */
+        public boolean isPerPlayerLanguage() {
+            return perPlayerLanguage;
+        }
+    }
+
+    /**
+     * A value set by a command, replayed over configurations read before it was saved.
+     */
+    private record Edit(long sequence, String path, Object value) {
+    }
+}
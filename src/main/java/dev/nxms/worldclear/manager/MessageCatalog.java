@@ -0,0 +1,75 @@
+package dev.nxms.worldclear.manager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The messages of one language, parsed on reload.
+ * Keys the language file doesn't define are filled in from its fallbacks while loading,
+ * so a lookup is one probe of the key index shared by all languages and an array read.
+ */
+public final class MessageCatalog {
+
+    private final String language;
+    private final int index;
+    private final Map<String, Integer> ids;
+    private final String[] raw;
+    private final MessageTemplate[] templates;
+    private final Map<String, String> prefixes;
+
+    // Keys no file defines, parsed on first use
+    private final Map<String, MessageTemplate> missing = new ConcurrentHashMap<>();
+
+    MessageCatalog(String language, int index, Map<String, Integer> ids, String[] raw, MessageTemplate[] templates,
+                   Map<String, String> prefixes) {
+        this.language = language;
+        this.index = index;
+        this.ids = ids;
+        this.raw = raw;
+        this.templates = templates;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Gets the language code of the catalog.
+     *
+     * @return language code (e.g., "en", "pt_br")
+     */
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Gets the position of the catalog among the catalogs of the same reload.
+     *
+     * @return catalog index
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the parsed template of a message.
+     *
+     * @param key message key
+     * @return message template with prefixes applied
+     */
+    public MessageTemplate getTemplate(String key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return templates[id];
+        }
+        return missing.computeIfAbsent(key, k -> MessageTemplate.compile(getRaw(k), prefixes));
+    }
+
+    /**
+     * Gets a raw message.
+     *
+     * @param key message key
+     * @return raw message string
+     */
+    public String getRaw(String key) {
+        Integer id = ids.get(key);
+        return id != null ? raw[id] : "&cMissing message: " + key;
+    }
+}
@@ -0,0 +1,233 @@
+package dev.nxms.worldclear.manager;
+
+import dev.nxms.worldclear.WorldClear;
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Catalogs of every language file in the data folder, loaded together on reload.
+ * Each language falls back to its base language (pt_br to pt) and then to English,
+ * the English file falls back to the messages shipped in the jar.
+ * Templates equal across languages are parsed once and shared.
+ */
+public final class MessageCatalogs {
+
+    private static final String DEFAULT_LANGUAGE = "en";
+    private static final String PREFIX_START = "prefix-";
+    private static final Pattern FILE_NAME = Pattern.compile("messages_([A-Za-z0-9_-]+)\\.yml");
+
+    private final Map<String, MessageCatalog> catalogs;
+    private final MessageCatalog[] byIndex;
+    private final MessageCatalog defaultCatalog;
+    private final boolean perPlayer;
+
+    // Client locales resolved to a catalog, there are only a few dozen
+    private final Map<Locale, MessageCatalog> byLocale = new ConcurrentHashMap<>();
+
+    private MessageCatalogs(Map<String, MessageCatalog> catalogs, MessageCatalog defaultCatalog, boolean perPlayer) {
+        this.catalogs = catalogs;
+        this.byIndex = new MessageCatalog[catalogs.size()];
+        catalogs.values().forEach(catalog -> byIndex[catalog.getIndex()] = catalog);
+        this.defaultCatalog = defaultCatalog;
+        this.perPlayer = perPlayer;
+    }
+
+    /**
+     * Loads and parses all language files.
+     * The English file is saved to the data folder first if it doesn't exist.
+     *
+     * @param plugin plugin to load the files of
+     * @param language language of the console and of players whose locale has no file
+     * @param perPlayer true to pick the catalog by the client locale of each player
+     * @return loaded catalogs
+     */
+    public static MessageCatalogs load(WorldClear plugin, String language, boolean perPlayer) {
+        File folder = plugin.getDataFolder();
+        if (!new File(folder, "messages_en.yml").exists()) {
+            plugin.saveResource("messages_en.yml", false);
+        }
+
+        Map<String, String> shipped = new LinkedHashMap<>();
+        InputStream defaultStream = plugin.getResource("messages_en.yml");
+        if (defaultStream != null) {
+            readMessages(YamlConfiguration.loadConfiguration(
+                    new InputStreamReader(defaultStream, StandardCharsets.UTF_8)), shipped);
+        }
+
+        Map<String, Map<String, String>> files = new TreeMap<>();
+        File[] candidates = folder.listFiles();
+        for (File file : candidates != null ? candidates : new File[0]) {
+            Matcher matcher = FILE_NAME.matcher(file.getName());
+            if (file.isFile() && matcher.matches()) {
+                Map<String, String> messages = new LinkedHashMap<>();
+                readMessages(YamlConfiguration.loadConfiguration(file), messages);
+                files.put(normalize(matcher.group(1)), messages);
+            }
+        }
+        files.putIfAbsent(DEFAULT_LANGUAGE, Map.of());
+
+        // Ids cover every key of every file, the shipped keys first
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        addKeys(shipped, ids, keys);
+        files.values().forEach(messages -> addKeys(messages, ids, keys));
+        Map<String, Integer> sharedIds = Map.copyOf(ids);
+
+        Map<TemplateKey, MessageTemplate> interned = new HashMap<>();
+        Map<String, MessageCatalog> catalogs = new HashMap<>();
+        for (String code : files.keySet()) {
+            Map<String, String> merged = new HashMap<>(shipped);
+            merged.putAll(files.get(DEFAULT_LANGUAGE));
+            int separator = code.indexOf('_');
+            if (separator > 0 && files.containsKey(code.substring(0, separator))) {
+                merged.putAll(files.get(code.substring(0, separator)));
+            }
+            merged.putAll(files.get(code));
+            catalogs.put(code, compile(code, catalogs.size(), merged, sharedIds, keys, interned));
+        }
+
+        String configured = normalize(language);
+        MessageCatalog defaultCatalog = catalogs.get(configured);
+        if (defaultCatalog == null) {
+            plugin.getLogger().warning("Language file messages_" + language + ".yml not found. Falling back to English.");
+            defaultCatalog = catalogs.get(DEFAULT_LANGUAGE);
+        }
+        plugin.getLogger().info("Loaded messages for languages: " + String.join(", ", files.keySet()));
+        return new MessageCatalogs(Map.copyOf(catalogs), defaultCatalog, perPlayer);
+    }
+
+    private static void readMessages(YamlConfiguration config, Map<String, String> messages) {
+        for (String key : config.getKeys(false)) {
+            String value = config.getString(key);
+            if (value != null) {
+                messages.put(key.intern(), value);
+            }
+        }
+    }
+
+    private static void addKeys(Map<String, String> messages, Map<String, Integer> ids, List<String> keys) {
+        for (String key : messages.keySet()) {
+            if (!ids.containsKey(key)) {
+                ids.put(key, keys.size());
+                keys.add(key);
+            }
+        }
+    }
+
+    private static MessageCatalog compile(String code, int index, Map<String, String> merged,
+                                          Map<String, Integer> ids, List<String> keys,
+                                          Map<TemplateKey, MessageTemplate> interned) {
+        Map<String, String> prefixes = new HashMap<>();
+        merged.forEach((key, value) -> {
+            if (key.startsWith(PREFIX_START)) {
+                prefixes.put(key, value);
+            }
+        });
+        Map<String, String> sharedPrefixes = Map.copyOf(prefixes);
+
+        String[] raw = new String[keys.size()];
+        MessageTemplate[] templates = new MessageTemplate[keys.size()];
+        for (int id = 0; id < raw.length; id++) {
+            String key = keys.get(id);
+            raw[id] = merged.getOrDefault(key, "&cMissing message: " + key);
+            templates[id] = interned.computeIfAbsent(new TemplateKey(raw[id], sharedPrefixes),
+                    k -> MessageTemplate.compile(k.raw(), k.prefixes()));
+        }
+        return new MessageCatalog(code, index, ids, raw, templates, sharedPrefixes);
+    }
+
+    private static String normalize(String language) {
+        return language.toLowerCase(Locale.ROOT).replace('-', '_');
+    }
+
+    /**
+     * Gets the catalog of the console and of players whose locale has no language file.
+     *
+     * @return default catalog
+     */
+    public MessageCatalog getDefault() {
+        return defaultCatalog;
+    }
+
+    /**
+     * Gets the catalog for a client locale.
+     *
+     * @param locale client locale of a player
+     * @return catalog of the locale, its base language or the default catalog
+     */
+    public MessageCatalog forLocale(Locale locale) {
+        if (!perPlayer || locale == null) {
+            return defaultCatalog;
+        }
+        return byLocale.computeIfAbsent(locale, l -> {
+            MessageCatalog catalog = catalogs.get(normalize(l.toString()));
+            if (catalog == null) {
+                catalog = catalogs.get(normalize(l.getLanguage()));
+            }
+            return catalog != null ? catalog : defaultCatalog;
+        });
+    }
+
+    /**
+     * Gets the catalog messages to a recipient are taken from.
+     *
+     * @param audience recipient
+     * @return catalog of the player's client locale, or the default catalog
+     */
+    public MessageCatalog forMember(Audience audience) {
+        if (perPlayer && audience instanceof Player player) {
+            return forLocale(player.locale());
+        }
+        return defaultCatalog;
+    }
+
+    /**
+     * Gets the number of catalogs.
+     *
+     * @return number of languages loaded
+     */
+    public int size() {
+        return byIndex.length;
+    }
+
+    /**
+     * Gets a catalog by its index.
+     *
+     * @param index catalog index, below {@link #size()}
+     * @return catalog
+     */
+    MessageCatalog get(int index) {
+        return byIndex[index];
+    }
+
+    /**
+     * Checks if catalogs are picked per player.
+     *
+     * @return true if players get messages in their client locale
+     */
+    public boolean isPerPlayer() {
+        return perPlayer;
+    }
+
+    /**
+     * Raw message and prefixes a template is parsed from, to share equal templates.
+     */
+    private record TemplateKey(String raw, Map<String, String> prefixes) {
+    }
+}
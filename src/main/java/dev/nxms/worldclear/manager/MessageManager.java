@@ -1,35 +1,29 @@
 package dev.nxms.worldclear.manager;
 
 import dev.nxms.worldclear.WorldClear;
+import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.entity.Player;
 
-import java.io.File;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Manages plugin messages with support for modal prefixes.
- * Handles language file loading with fallback to English.
+ * All language files are loaded on reload, players get messages in their client locale
+ * and everything else in the configured language, falling back to English.
+ * Messages are parsed into {@link MessageTemplate}s once per reload.
  */
 public class MessageManager {
 
     private final WorldClear plugin;
-    private FileConfiguration messages;
-    private final Map<String, String> prefixes;
-
-    // Pattern for matching prefix placeholders like {prefix-info}
-    private static final Pattern PREFIX_PATTERN = Pattern.compile("\\{(prefix-[^}]+)}");
+    private volatile MessageCatalogs catalogs;
 
     // Serializer for converting legacy color codes to Adventure components
     private static final LegacyComponentSerializer LEGACY_SERIALIZER =
@@ -37,80 +31,103 @@ public class MessageManager {
 
     public MessageManager(WorldClear plugin) {
         this.plugin = plugin;
-        this.prefixes = new HashMap<>();
         reload();
     }
 
     /**
-     * Reloads messages from the appropriate language file.
+     * Reloads the messages of every language file.
      * Falls back to English if the selected language file doesn't exist.
      */
     public void reload() {
-        prefixes.clear();
-
-        String language = plugin.getConfigManager().getLanguage();
-        String fileName = "messages_" + language + ".yml";
-        File messagesFile = new File(plugin.getDataFolder(), fileName);
+        ConfigManager config = plugin.getConfigManager();
+        apply(MessageCatalogs.load(plugin, config.getLanguage(), config.isPerPlayerLanguage()));
+    }
 
-        // Try to load the selected language file
-        if (messagesFile.exists()) {
-            messages = YamlConfiguration.loadConfiguration(messagesFile);
-            plugin.getLogger().info("Loaded messages from " + fileName);
-        } else {
-            // Fallback to English
-            if (!language.equals("en")) {
-                plugin.getLogger().warning("Language file " + fileName + " not found. Falling back to English.");
-            }
-            loadDefaultMessages();
-        }
+    /**
+     * Swaps in catalogs loaded on another thread.
+     *
+     * @param loaded catalogs from {@link MessageCatalogs#load}
+     */
+    public void apply(MessageCatalogs loaded) {
+        this.catalogs = loaded;
+    }
 
-        // Load all prefixes from the messages file
-        loadPrefixes();
+    /**
+     * Gets the catalog of the configured language, used for the console.
+     *
+     * @return default catalog
+     */
+    public MessageCatalog getDefaultCatalog() {
+        return catalogs.getDefault();
     }
 
     /**
-     * Loads the default English messages from resources.
+     * Gets the catalog messages to a recipient are taken from.
+     *
+     * @param audience recipient
+     * @return catalog of the player's client locale, or the default catalog
      */
-    private void loadDefaultMessages() {
-        File defaultFile = new File(plugin.getDataFolder(), "messages_en.yml");
+    public MessageCatalog getCatalog(Audience audience) {
+        return catalogs.forMember(audience);
+    }
 
-        if (!defaultFile.exists()) {
-            plugin.saveResource("messages_en.yml", false);
+    /**
+     * Splits an audience by the catalog of each member, so a message is rendered once per language.
+     * An audience sharing one language is passed on as it is, otherwise members are grouped
+     * by catalog index in a second pass.
+     *
+     * @param audience recipients
+     * @param action receives each catalog with the recipients using it
+     */
+    public void forEachLanguage(Audience audience, BiConsumer<MessageCatalog, Audience> action) {
+        MessageCatalogs current = catalogs;
+        if (!current.isPerPlayer() || current.size() == 1) {
+            action.accept(current.getDefault(), audience);
+            return;
         }
 
-        messages = YamlConfiguration.loadConfiguration(defaultFile);
-
-        // Load defaults from jar as fallback
-        InputStream defaultStream = plugin.getResource("messages_en.yml");
-        if (defaultStream != null) {
-            YamlConfiguration defaultConfig = YamlConfiguration.loadConfiguration(
-                    new InputStreamReader(defaultStream, StandardCharsets.UTF_8)
-            );
-            messages.setDefaults(defaultConfig);
+        LanguageCheck check = new LanguageCheck(current);
+        audience.forEachAudience(check);
+        if (!check.mixed) {
+            action.accept(check.first != null ? check.first : current.getDefault(), audience);
+            return;
         }
-    }
 
-    /**
-     * Loads all prefix definitions from the messages file.
-     * Prefixes are keys starting with "prefix-".
-     */
-    private void loadPrefixes() {
-        for (String key : messages.getKeys(false)) {
-            if (key.startsWith("prefix-")) {
-                String value = messages.getString(key, "");
-                prefixes.put(key, value);
+        List<List<Audience>> groups = new ArrayList<>(Collections.nCopies(current.size(), null));
+        audience.forEachAudience(member -> {
+            int index = current.forMember(member).getIndex();
+            List<Audience> group = groups.get(index);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.set(index, group);
+            }
+            group.add(member);
+        });
+        for (int i = 0; i < groups.size(); i++) {
+            if (groups.get(i) != null) {
+                action.accept(current.get(i), Audience.audience(groups.get(i)));
             }
         }
     }
 
     /**
-     * Gets a raw message from the messages file.
+     * Gets a raw message from the default language.
      *
      * @param key message key
      * @return raw message string
      */
     public String getRaw(String key) {
-        return messages.getString(key, "&cMissing message: " + key);
+        return catalogs.getDefault().getRaw(key);
+    }
+
+    /**
+     * Gets the parsed template of a message in the default language.
+     *
+     * @param key message key
+     * @return message template with prefixes applied
+     */
+    public MessageTemplate getTemplate(String key) {
+        return catalogs.getDefault().getTemplate(key);
     }
 
     /**
@@ -120,8 +137,7 @@ public class MessageManager {
      * @return message with prefixes replaced
      */
     public String get(String key) {
-        String message = getRaw(key);
-        return applyPrefixes(message);
+        return getTemplate(key).format(Map.of());
     }
 
     /**
@@ -132,44 +148,7 @@ public class MessageManager {
      * @return formatted message
      */
     public String get(String key, Map<String, String> placeholders) {
-        String message = get(key);
-        return applyPlaceholders(message, placeholders);
-    }
-
-    /**
-     * Applies modal prefixes to a message.
-     * Replaces {prefix-name} with the corresponding prefix value.
-     *
-     * @param message message to process
-     * @return message with prefixes applied
-     */
-    private String applyPrefixes(String message) {
-        Matcher matcher = PREFIX_PATTERN.matcher(message);
-        StringBuffer result = new StringBuffer();
-
-        while (matcher.find()) {
-            String prefixKey = matcher.group(1);
-            String prefixValue = prefixes.getOrDefault(prefixKey, "");
-            matcher.appendReplacement(result, Matcher.quoteReplacement(prefixValue));
-        }
-
-        matcher.appendTail(result);
-        return result.toString();
-    }
-
-    /**
-     * Applies placeholders to a message.
-     *
-     * @param message message to process
-     * @param placeholders map of placeholder names to values
-     * @return message with placeholders replaced
-     */
-    private String applyPlaceholders(String message, Map<String, String> placeholders) {
-        String result = message;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            result = result.replace("{" + entry.getKey() + "}", entry.getValue());
-        }
-        return result;
+        return getTemplate(key).format(placeholders);
     }
 
     /**
@@ -189,8 +168,7 @@ public class MessageManager {
      * @param key message key
      */
     public void send(CommandSender sender, String key) {
-        String message = get(key);
-        sender.sendMessage(toComponent(message));
+        sender.sendMessage(getCatalog(sender).getTemplate(key).component());
     }
 
     /**
@@ -201,8 +179,7 @@ public class MessageManager {
      * @param placeholders map of placeholder names to values
      */
     public void send(CommandSender sender, String key, Map<String, String> placeholders) {
-        String message = get(key, placeholders);
-        sender.sendMessage(toComponent(message));
+        sender.sendMessage(getCatalog(sender).getTemplate(key).component(placeholders));
     }
 
     /**
@@ -214,9 +191,7 @@ public class MessageManager {
      * @param value placeholder value
      */
     public void send(CommandSender sender, String key, String placeholder, String value) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put(placeholder, value);
-        send(sender, key, placeholders);
+        sender.sendMessage(getCatalog(sender).getTemplate(key).component(placeholder, value));
     }
 
     /**
@@ -231,45 +206,84 @@ public class MessageManager {
      */
     public void send(CommandSender sender, String key, String placeholder1, String value1,
                      String placeholder2, String value2) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put(placeholder1, value1);
-        placeholders.put(placeholder2, value2);
-        send(sender, key, placeholders);
+        sender.sendMessage(getCatalog(sender).getTemplate(key).component(placeholder1, value1, placeholder2, value2));
     }
 
     /**
-     * Broadcasts a message to all online players.
+     * Broadcasts a message to the console and all online players who didn't mute clear notices.
+     * The component is rendered once per language and shared by its recipients.
      *
      * @param key message key
      */
     public void broadcast(String key) {
-        String message = get(key);
-        Component component = toComponent(message);
-        Bukkit.getServer().sendMessage(component);
+        forEachLanguage(getBroadcastAudience(), (catalog, members) ->
+                members.sendMessage(catalog.getTemplate(key).component()));
     }
 
     /**
-     * Broadcasts a message to all online players with placeholders.
+     * Broadcasts a message to the console and all online players who didn't mute clear notices, with placeholders.
      *
      * @param key message key
      * @param placeholders map of placeholder names to values
      */
     public void broadcast(String key, Map<String, String> placeholders) {
-        String message = get(key, placeholders);
-        Component component = toComponent(message);
-        Bukkit.getServer().sendMessage(component);
+        forEachLanguage(getBroadcastAudience(), (catalog, members) ->
+                members.sendMessage(catalog.getTemplate(key).component(placeholders)));
     }
 
     /**
-     * Broadcasts a message to all online players with a single placeholder.
+     * Broadcasts a message to the console and all online players who didn't mute clear notices,
+     * with a single placeholder.
      *
      * @param key message key
      * @param placeholder placeholder name
      * @param value placeholder value
      */
     public void broadcast(String key, String placeholder, String value) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put(placeholder, value);
-        broadcast(key, placeholders);
+        broadcast(getBroadcastAudience(), key, placeholder, value);
+    }
+
+    private Audience getBroadcastAudience() {
+        return plugin.getNotifyPreferences().audience(Bukkit.getOnlinePlayers(), true);
+    }
+
+    /**
+     * Broadcasts a message to an audience with a single placeholder.
+     *
+     * @param audience recipients, already without players who muted clear notices
+     * @param key message key
+     * @param placeholder placeholder name
+     * @param value placeholder value
+     */
+    public void broadcast(Audience audience, String key, String placeholder, String value) {
+        forEachLanguage(audience, (catalog, members) ->
+                members.sendMessage(catalog.getTemplate(key).component(placeholder, value)));
+    }
+
+    /**
+     * Finds out whether the members of an audience use more than one catalog.
+     */
+    private static final class LanguageCheck implements Consumer<Audience> {
+
+        private final MessageCatalogs catalogs;
+        private MessageCatalog first;
+        private boolean mixed;
+
+        private LanguageCheck(MessageCatalogs catalogs) {
+            this.catalogs = catalogs;
+        }
+
+        @Override
+        public void accept(Audience member) {
+            if (mixed) {
+                return;
+            }
+            MessageCatalog catalog = catalogs.forMember(member);
+            if (first == null) {
+                first = catalog;
+            } else if (catalog != first) {
+                mixed = true;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package dev.nxms.worldclear.manager;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message parsed once into literal and placeholder segments.
+ * Prefixes are substituted while parsing, and messages without placeholders
+ * keep a ready-made component, so sending them needs no parsing at all.
+ */
+public final class MessageTemplate {
+
+    private static final String PREFIX_START = "prefix-";
+
+    // Serializer for converting legacy color codes to Adventure components
+    private static final LegacyComponentSerializer LEGACY_SERIALIZER =
+            LegacyComponentSerializer.legacyAmpersand();
+
+    // literals[i] precedes placeholders[i], the last literal follows the last placeholder
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+    private final String text;
+    private final Component component;
+
+    private MessageTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+
+        if (placeholders.length == 0) {
+            this.text = literals[0];
+            this.component = LEGACY_SERIALIZER.deserialize(text);
+        } else {
+            this.text = null;
+            this.component = null;
+        }
+    }
+
+    /**
+     * Parses a raw message into a template.
+     * {prefix-name} tokens are replaced with their prefix, unknown prefixes are dropped.
+     * Any other {name} token becomes a placeholder.
+     *
+     * @param raw raw message string
+     * @param prefixes map of prefix keys to values
+     * @return parsed template
+     */
+    public static MessageTemplate compile(String raw, Map<String, String> prefixes) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(raw.length());
+
+        int index = 0;
+        while (index < raw.length()) {
+            int open = raw.indexOf('{', index);
+            int close = open < 0 ? -1 : raw.indexOf('}', open + 1);
+            if (close < 0) {
+                literal.append(raw, index, raw.length());
+                break;
+            }
+
+            literal.append(raw, index, open);
+            String name = raw.substring(open + 1, close);
+            if (name.startsWith(PREFIX_START)) {
+                literal.append(prefixes.getOrDefault(name, ""));
+            } else {
+                literals.add(literal.toString());
+                placeholders.add(name);
+                literal.setLength(0);
+            }
+            index = close + 1;
+        }
+
+        literals.add(literal.toString());
+        return new MessageTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    /**
+     * Checks if the message has no placeholders.
+     *
+     * @return true if the message is static
+     */
+    public boolean isStatic() {
+        return placeholders.length == 0;
+    }
+
+    /**
+     * Fills in placeholders. Placeholders without a value are kept as {name}.
+     *
+     * @param values map of placeholder names to values
+     * @return formatted message
+     */
+    public String format(Map<String, String> values) {
+        if (text != null) {
+            return text;
+        }
+
+        StringBuilder result = new StringBuilder(literalLength + placeholders.length * 8);
+        for (int i = 0; i < placeholders.length; i++) {
+            result.append(literals[i]);
+            String value = values.get(placeholders[i]);
+            appendValue(result, placeholders[i], value);
+        }
+        return result.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * Fills in a single placeholder. Other placeholders are kept as {name}.
+     *
+     * @param name placeholder name
+     * @param value placeholder value
+     * @return formatted message
+     */
+    public String format(String name, String value) {
+        return format(name, value, null, null);
+    }
+
+    /**
+     * Fills in two placeholders. Other placeholders are kept as {name}.
+     *
+     * @param name1 first placeholder name
+     * @param value1 first placeholder value
+     * @param name2 second placeholder name
+     * @param value2 second placeholder value
+     * @return formatted message
+     */
+    public String format(String name1, String value1, String name2, String value2) {
+        if (text != null) {
+            return text;
+        }
+
+        StringBuilder result = new StringBuilder(literalLength + placeholders.length * 8);
+        for (int i = 0; i < placeholders.length; i++) {
+            result.append(literals[i]);
+            String placeholder = placeholders[i];
+            String value = placeholder.equals(name1) ? value1 : placeholder.equals(name2) ? value2 : null;
+            appendValue(result, placeholder, value);
+        }
+        return result.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * Gets the message as a component.
+     *
+     * @return cached component for static messages, a freshly parsed one otherwise
+     */
+    public Component component() {
+        return component != null ? component : LEGACY_SERIALIZER.deserialize(format(Map.of()));
+    }
+
+    /**
+     * Fills in placeholders and converts the result to a component.
+     *
+     * @param values map of placeholder names to values
+     * @return formatted component
+     */
+    public Component component(Map<String, String> values) {
+        return component != null ? component : LEGACY_SERIALIZER.deserialize(format(values));
+    }
+
+    /**
+     * Fills in a single placeholder and converts the result to a component.
+     *
+     * @param name placeholder name
+     * @param value placeholder value
+     * @return formatted component
+     */
+    public Component component(String name, String value) {
+        return component != null ? component : LEGACY_SERIALIZER.deserialize(format(name, value));
+    }
+
+    /**
+     * Fills in two placeholders and converts the result to a component.
+     *
+     * @param name1 first placeholder name
+     * @param value1 first placeholder value
+     * @param name2 second placeholder name
+     * @param value2 second placeholder value
+     * @return formatted component
+     */
+    public Component component(String name1, String value1, String name2, String value2) {
+        return component != null ? component : LEGACY_SERIALIZER.deserialize(format(name1, value1, name2, value2));
+    }
+
+    private static void appendValue(StringBuilder result, String placeholder, String value) {
+        if (value != null) {
+            result.append(value);
+        } else {
+            result.append('{').append(placeholder).append('}');
+        }
+    }
+}
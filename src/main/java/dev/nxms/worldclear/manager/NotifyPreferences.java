@@ -0,0 +1,196 @@
+package dev.nxms.worldclear.manager;
+
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Players who muted clear notices with /worldclear notify.
+ * Every muting player gets a slot in a bit set. Changes publish an immutable copy,
+ * so broadcasts check recipients without locking. Saved to a file of player ids,
+ * written on another thread and replaced in a single move.
+ */
+public class NotifyPreferences {
+
+    private final Path file;
+    private final Logger logger;
+    private final AtomicReference<List<UUID>> pending = new AtomicReference<>();
+    private final Object writeLock = new Object();
+
+    // Guarded by this, published through the snapshot
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final BitSet muted = new BitSet();
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), new BitSet());
+    private volatile int revision;
+
+    public NotifyPreferences(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads the muted players from the file.
+     */
+    public synchronized void load() {
+        slots.clear();
+        muted.clear();
+        if (Files.exists(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        setMuted(UUID.fromString(line.trim()), true);
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warning("Failed to read " + file.getFileName() + ", nobody has muted clear notices: "
+                        + e.getMessage());
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Mutes or unmutes clear notices for a player and saves the change on another thread.
+     *
+     * @param player player id
+     * @param mute true to stop showing clear notices to the player
+     * @param executor executor to write on
+     */
+    public synchronized void setMuted(UUID player, boolean mute, Executor executor) {
+        setMuted(player, mute);
+        publish();
+
+        List<UUID> ids = new ArrayList<>(muted.cardinality());
+        slots.forEach((id, slot) -> {
+            if (muted.get(slot)) {
+                ids.add(id);
+            }
+        });
+        if (pending.getAndSet(ids) == null) {
+            executor.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Checks if a player muted clear notices.
+     *
+     * @param player player id
+     * @return true if notices aren't shown to the player
+     */
+    public boolean isMuted(UUID player) {
+        return snapshot.isMuted(player);
+    }
+
+    /**
+     * Gets a number that changes whenever the muted players change,
+     * so audiences built from an earlier state can be rebuilt.
+     *
+     * @return revision of the muted players
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * Gets the recipients of a clear notice.
+     *
+     * @param players players the notice is meant for
+     * @param console true to include the console
+     * @return the players who didn't mute clear notices, and the console if asked for
+     */
+    public Audience audience(Collection<? extends Player> players, boolean console) {
+        Snapshot current = snapshot;
+        List<Audience> recipients = new ArrayList<>(players.size() + 1);
+        if (console) {
+            recipients.add(Bukkit.getConsoleSender());
+        }
+        for (Player player : players) {
+            if (!current.isMuted(player.getUniqueId())) {
+                recipients.add(player);
+            }
+        }
+        return Audience.audience(recipients);
+    }
+
+    /**
+     * Writes a pending save on the calling thread, e.g. when the plugin is disabled.
+     */
+    public void flush() {
+        writePending();
+    }
+
+    private void setMuted(UUID player, boolean mute) {
+        Integer slot = slots.get(player);
+        if (slot == null) {
+            if (!mute) {
+                return;
+            }
+            slot = slots.size();
+            slots.put(player, slot);
+        }
+        muted.set(slot, mute);
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(Map.copyOf(slots), (BitSet) muted.clone());
+        revision++;
+    }
+
+    private void writePending() {
+        synchronized (writeLock) {
+            List<UUID> ids = pending.getAndSet(null);
+            if (ids != null) {
+                write(ids);
+            }
+        }
+    }
+
+    private void write(List<UUID> ids) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (UUID id : ids) {
+                    writer.write(id.toString());
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to save " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Immutable copy of the muted players.
+     */
+    private record Snapshot(Map<UUID, Integer> slots, BitSet muted) {
+
+        private boolean isMuted(UUID player) {
+            Integer slot = slots.get(player);
+            return slot != null && muted.get(slot);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package dev.nxms.worldclear.manager;
+
+import dev.nxms.worldclear.filter.ClearFilter;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Clear schedule of a group of worlds, compiled from config.yml on load and reload.
+ * The default profile has no worlds and covers every world not listed by another profile.
+ * Worlds listed by name take precedence over profiles matching their dimension.
+ *
+ * @param name profile name, "default" for the auto-clear settings
+ * @param worlds lower case names of the worlds the profile covers
+ * @param environments dimensions the profile covers
+ * @param intervalSeconds interval between clears
+ * @param countdownStart second the countdown starts at
+ * @param filter filter deciding which entities are removed
+ * @param worldBroadcast true to only show countdowns and results to players in the profile's worlds
+ */
+public record ScheduleProfile(String name, Set<String> worlds, Set<World.Environment> environments,
+                              long intervalSeconds, int countdownStart,
+                              ClearFilter filter, boolean worldBroadcast) {
+
+    public static final String DEFAULT = "default";
+
+    /**
+     * Checks if this is the default profile covering all unlisted worlds.
+     *
+     * @return true for the default profile
+     */
+    public boolean isDefault() {
+        return worlds.isEmpty() && environments.isEmpty();
+    }
+
+    /**
+     * Lists the worlds and dimensions the profile covers.
+     *
+     * @return comma separated names
+     */
+    public String describeWorlds() {
+        List<String> names = new ArrayList<>(worlds);
+        for (World.Environment environment : environments) {
+            names.add(environment.name().toLowerCase(Locale.ROOT));
+        }
+        return String.join(", ", names);
+    }
+}
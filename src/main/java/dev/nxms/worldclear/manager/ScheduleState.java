@@ -0,0 +1,109 @@
+package dev.nxms.worldclear.manager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Small file holding the next clear time of every schedule, so restarts don't reset the clear clock.
+ * Written to a temporary file that replaces the old one in a single move,
+ * so a crash while saving leaves either the old or the new state.
+ */
+class ScheduleState {
+
+    private final Path file;
+    private final Logger logger;
+    private final AtomicReference<Map<String, Long>> pending = new AtomicReference<>();
+
+    ScheduleState(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads the saved clear times.
+     *
+     * @return next clear per schedule name in epoch milliseconds, empty if nothing was saved
+     */
+    Map<String, Long> load() {
+        Map<String, Long> deadlines = new HashMap<>();
+        if (!Files.exists(file)) {
+            return deadlines;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warning("Failed to read " + file.getFileName() + ", schedules start from now: " + e.getMessage());
+            return deadlines;
+        }
+
+        for (String name : properties.stringPropertyNames()) {
+            try {
+                deadlines.put(name, Long.parseLong(properties.getProperty(name).trim()));
+            } catch (NumberFormatException e) {
+                logger.warning("Ignoring invalid clear time of schedule " + name + " in " + file.getFileName());
+            }
+        }
+        return deadlines;
+    }
+
+    /**
+     * Saves the clear times on another thread. If several saves queue up, only the latest is written.
+     *
+     * @param deadlines next clear per schedule name in epoch milliseconds
+     * @param executor executor to write on
+     */
+    void saveAsync(Map<String, Long> deadlines, Executor executor) {
+        if (pending.getAndSet(Map.copyOf(deadlines)) == null) {
+            executor.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Saves the clear times on the calling thread.
+     *
+     * @param deadlines next clear per schedule name in epoch milliseconds
+     */
+    void save(Map<String, Long> deadlines) {
+        pending.set(Map.copyOf(deadlines));
+        writePending();
+    }
+
+    private synchronized void writePending() {
+        Map<String, Long> deadlines = pending.getAndSet(null);
+        if (deadlines == null) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        deadlines.forEach((name, deadline) -> properties.setProperty(name, String.valueOf(deadline)));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "WorldClear schedule state, next clear per schedule in epoch milliseconds");
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to save " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+}
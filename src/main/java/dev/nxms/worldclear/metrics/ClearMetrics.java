@@ -0,0 +1,221 @@
+package dev.nxms.worldclear.metrics;
+
+import org.bukkit.Material;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of all clears since the plugin was enabled.
+ * Recording uses adders, atomic arrays indexed by material ordinal and per-world
+ * stats resolved once per sweep, so the clear path doesn't allocate.
+ */
+public final class ClearMetrics implements ClearMetricsMXBean {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private final LongAdder sweeps = new LongAdder();
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder hotspotRemoved = new LongAdder();
+    private final LatencyHistogram sweepNanos = new LatencyHistogram();
+    private final LatencyHistogram chunkNanos = new LatencyHistogram();
+    private final AtomicLongArray materials = new AtomicLongArray(MATERIALS.length);
+    private final Map<String, WorldStats> worlds = new ConcurrentHashMap<>();
+    private volatile long removalRate;
+    private volatile long removalQueue;
+
+    /**
+     * Gets the stats of a world, creating them on first use.
+     *
+     * @param world world name
+     * @return stats to record the world's chunks into
+     */
+    public WorldStats world(String world) {
+        WorldStats stats = worlds.get(world);
+        return stats != null ? stats : worlds.computeIfAbsent(world, name -> new WorldStats(this));
+    }
+
+    /**
+     * Records a finished sweep.
+     *
+     * @param nanos time from start to the last removed chunk
+     */
+    public void recordSweep(long nanos) {
+        sweeps.increment();
+        sweepNanos.record(nanos);
+    }
+
+    /**
+     * Records items removed by a hotspot trim.
+     *
+     * @param count number of items removed
+     */
+    public void recordHotspot(int count) {
+        hotspotRemoved.add(count);
+    }
+
+    /**
+     * Records the progress of the running sweep, once a tick. Both drop to zero once it is done.
+     *
+     * @param removalsPerSecond entities removed over the last second
+     * @param queuedChunks chunks still waiting to be cleared
+     */
+    public void recordRemovalRate(long removalsPerSecond, long queuedChunks) {
+        removalRate = removalsPerSecond;
+        removalQueue = queuedChunks;
+    }
+
+    public LatencyHistogram getSweepHistogram() {
+        return sweepNanos;
+    }
+
+    public LatencyHistogram getChunkHistogram() {
+        return chunkNanos;
+    }
+
+    @Override
+    public long getSweeps() {
+        return sweeps.sum();
+    }
+
+    @Override
+    public long getEntitiesScanned() {
+        return scanned.sum();
+    }
+
+    @Override
+    public long getEntitiesRemoved() {
+        return removed.sum();
+    }
+
+    @Override
+    public long getHotspotItemsRemoved() {
+        return hotspotRemoved.sum();
+    }
+
+    @Override
+    public long getRemovalsPerSecond() {
+        return removalRate;
+    }
+
+    @Override
+    public long getRemovalQueueDepth() {
+        return removalQueue;
+    }
+
+    @Override
+    public double getSweepMillisP50() {
+        return sweepNanos.getValueAtPercentile(50) / 1_000_000.0;
+    }
+
+    @Override
+    public double getSweepMillisP99() {
+        return sweepNanos.getValueAtPercentile(99) / 1_000_000.0;
+    }
+
+    @Override
+    public double getSweepMillisMax() {
+        return sweepNanos.getMax() / 1_000_000.0;
+    }
+
+    @Override
+    public double getChunkMicrosP50() {
+        return chunkNanos.getValueAtPercentile(50) / 1_000.0;
+    }
+
+    @Override
+    public double getChunkMicrosP99() {
+        return chunkNanos.getValueAtPercentile(99) / 1_000.0;
+    }
+
+    @Override
+    public double getChunkMicrosMax() {
+        return chunkNanos.getMax() / 1_000.0;
+    }
+
+    /**
+     * Gets the entities scanned per world.
+     *
+     * @return world names to scanned counts
+     */
+    public Map<String, Long> getScannedByWorld() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        worlds.forEach((name, stats) -> result.put(name, stats.scanned.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getRemovedByWorld() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        worlds.forEach((name, stats) -> result.put(name, stats.removed.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getRemovedByMaterial() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < MATERIALS.length; i++) {
+            long count = materials.get(i);
+            if (count > 0) {
+                result.put(MATERIALS[i].name(), count);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counters of a single world. Totals are updated together with the world's own counters.
+     */
+    public static final class WorldStats {
+
+        private final ClearMetrics metrics;
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder removed = new LongAdder();
+
+        private WorldStats(ClearMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        /**
+         * Records a cleared chunk.
+         *
+         * @param scannedCount entities looked at
+         * @param removedCount entities removed
+         * @param nanos time spent on the chunk
+         */
+        public void recordChunk(int scannedCount, int removedCount, long nanos) {
+            scanned.add(scannedCount);
+            removed.add(removedCount);
+            metrics.scanned.add(scannedCount);
+            metrics.removed.add(removedCount);
+            metrics.chunkNanos.record(nanos);
+        }
+
+        /**
+         * Records a single entity checked outside of a chunk, e.g. after a region hand-off.
+         *
+         * @param wasRemoved true if the entity was removed
+         */
+        public void recordEntity(boolean wasRemoved) {
+            scanned.increment();
+            metrics.scanned.increment();
+            if (wasRemoved) {
+                removed.increment();
+                metrics.removed.increment();
+            }
+        }
+
+        /**
+         * Records the material of a removed item.
+         *
+         * @param material item material
+         */
+        public void recordMaterial(Material material) {
+            metrics.materials.incrementAndGet(material.ordinal());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package dev.nxms.worldclear.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link ClearMetrics}, registered as
+ * {@code dev.nxms.worldclear:type=ClearMetrics} on the platform MBean server.
+ */
+public interface ClearMetricsMXBean {
+
+    long getSweeps();
+
+    long getEntitiesScanned();
+
+    long getEntitiesRemoved();
+
+    long getHotspotItemsRemoved();
+
+    long getRemovalsPerSecond();
+
+    long getRemovalQueueDepth();
+
+    double getSweepMillisP50();
+
+    double getSweepMillisP99();
+
+    double getSweepMillisMax();
+
+    double getChunkMicrosP50();
+
+    double getChunkMicrosP99();
+
+    double getChunkMicrosMax();
+
+    Map<String, Long> getRemovedByWorld();
+
+    Map<String, Long> getRemovedByMaterial();
+}
@@ -0,0 +1,117 @@
+package dev.nxms.worldclear.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of durations in the style of HdrHistogram.
+ * Every power of two is split into 16 linear buckets, which keeps values within
+ * about 6% while covering nanoseconds to hours in a fixed array.
+ * Recording is lock-free and doesn't allocate, so it can run on any region thread.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single value.
+     *
+     * @param nanos duration in nanoseconds, negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return value count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Gets the sum of all recorded values.
+     *
+     * @return sum in nanoseconds
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of all recorded values.
+     *
+     * @return mean in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double) sum.get() / recorded;
+    }
+
+    /**
+     * Gets the value below which the given share of recorded values falls.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return highest value of the matching bucket in nanoseconds, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long recorded = count.get();
+        if (recorded == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(max.get(), highestEquivalentValue(i));
+            }
+        }
+        return max.get();
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long lowestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        return (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        return index + 1 < BUCKET_COUNT ? lowestEquivalentValue(index + 1) - 1 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,145 @@
+package dev.nxms.worldclear.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link ClearMetrics} in the Prometheus text format from an embedded HTTP server.
+ * Requests are answered on a single daemon thread, away from the server threads.
+ */
+public class PrometheusExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 1.0};
+
+    private final ClearMetrics metrics;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusExporter(ClearMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts serving metrics on /metrics.
+     *
+     * @param host address to bind to
+     * @param port port to listen on
+     * @throws IOException if the address can't be bound
+     */
+    public void start(String host, int port) throws IOException {
+        stop();
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WorldClear-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stops the HTTP server.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text format.
+     *
+     * @return exposition text
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(2048);
+
+        counter(out, "worldclear_sweeps_total", "Finished clear sweeps", metrics.getSweeps());
+        counter(out, "worldclear_hotspot_removed_total", "Items removed by hotspot trims",
+                metrics.getHotspotItemsRemoved());
+
+        gauge(out, "worldclear_removals_per_second", "Entities removed over the last second by the running sweep",
+                metrics.getRemovalsPerSecond());
+        gauge(out, "worldclear_removal_queue_chunks", "Chunks waiting to be cleared by the running sweep",
+                metrics.getRemovalQueueDepth());
+
+        header(out, "worldclear_entities_scanned_total", "counter", "Entities looked at by clears");
+        labelled(out, "worldclear_entities_scanned_total", "world", metrics.getScannedByWorld());
+        header(out, "worldclear_entities_removed_total", "counter", "Entities removed by clears");
+        labelled(out, "worldclear_entities_removed_total", "world", metrics.getRemovedByWorld());
+        header(out, "worldclear_items_removed_total", "counter", "Dropped items removed by clears");
+        labelled(out, "worldclear_items_removed_total", "material", metrics.getRemovedByMaterial());
+
+        summary(out, "worldclear_sweep_duration_seconds", "Time from start to end of a sweep",
+                metrics.getSweepHistogram());
+        summary(out, "worldclear_chunk_duration_seconds", "Time spent clearing a single chunk",
+                metrics.getChunkHistogram());
+
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, "counter", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void labelled(StringBuilder out, String name, String label, Map<String, Long> values) {
+        values.forEach((key, value) -> out.append(name).append('{').append(label).append("=\"")
+                .append(escape(key)).append("\"} ").append(value).append('\n'));
+    }
+
+    private static void summary(StringBuilder out, String name, String help, LatencyHistogram histogram) {
+        header(out, name, "summary", help);
+        for (double quantile : QUANTILES) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+        }
+        out.append(name).append("_sum ").append(seconds(histogram.getSum())).append('\n');
+        out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,238 @@
+package dev.nxms.worldclear.recovery;
+
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps the items removed by clears so they can be recovered later.
+ * Clears only queue the removed stacks, serializing, compressing and writing
+ * happens on a single I/O thread that owns one {@link SegmentStore} per world.
+ */
+public class LostAndFound {
+
+    private final Path directory;
+    private final Logger logger;
+    private final Queue<Spill> spilled = new ConcurrentLinkedQueue<>();
+    private final ExecutorService io;
+
+    // Only used on the I/O thread
+    private final Map<String, SegmentStore> stores = new HashMap<>();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+
+    private volatile long segmentBytes;
+    private volatile long maxBytes;
+    private volatile long maxAgeMillis;
+
+    public LostAndFound(Path directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WorldClear-LostAndFound");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the segment size and retention limits.
+     *
+     * @param segmentBytes size at which a new segment file is started
+     * @param maxBytes disk space each world may use
+     * @param maxAgeMillis age after which cleared items are dropped, 0 to keep them
+     */
+    public void configure(long segmentBytes, long maxBytes, long maxAgeMillis) {
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Queues a removed stack. Safe to call from any thread.
+     *
+     * @param world world the item was removed from
+     * @param stack removed stack
+     */
+    public void spill(World world, ItemStack stack) {
+        spilled.add(new Spill(world.getName(), stack));
+    }
+
+    /**
+     * Writes the stacks queued since the last flush as one batch per world.
+     * Called once a clear has finished.
+     */
+    public void flush() {
+        if (spilled.isEmpty()) {
+            return;
+        }
+        io.execute(this::writeSpilled);
+    }
+
+    /**
+     * Gets the stored clears of a world.
+     *
+     * @param world world name
+     * @return batches, newest first
+     */
+    public CompletableFuture<List<LostBatch>> getBatches(String world) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getStore(world).getBatches();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to open lost and found of " + world, e);
+            }
+        }, io);
+    }
+
+    /**
+     * Reads the items of a batch and reserves them for a single recovery.
+     * Call {@link #confirmClaim} once the items are handed out, or {@link #releaseClaim} if that failed.
+     *
+     * @param batch batch to recover
+     * @return item stacks, or null if the batch is gone or already recovered
+     */
+    public CompletableFuture<List<ItemStack>> claim(LostBatch batch) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<byte[]> items;
+            try {
+                items = getStore(batch.world()).claim(batch.segment(), batch.offset());
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read lost and found of " + batch.world(), e);
+            }
+            if (items == null) {
+                return null;
+            }
+
+            List<ItemStack> stacks = new ArrayList<>(items.size());
+            for (byte[] item : items) {
+                try {
+                    stacks.add(ItemStack.deserializeBytes(item));
+                } catch (RuntimeException e) {
+                    logger.warning("Skipping unreadable item in lost and found of " + batch.world()
+                            + ": " + e.getMessage());
+                }
+            }
+            return stacks;
+        }, io);
+    }
+
+    /**
+     * Records a recovery on disk.
+     *
+     * @param batch recovered batch
+     */
+    public void confirmClaim(LostBatch batch) {
+        io.execute(() -> {
+            try {
+                getStore(batch.world()).confirmClaim(batch.segment(), batch.offset(), segmentBytes);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to record recovery in lost and found of " + batch.world(), e);
+            }
+        });
+    }
+
+    /**
+     * Makes a batch available again after its items couldn't be handed out.
+     *
+     * @param batch batch that wasn't recovered
+     */
+    public void releaseClaim(LostBatch batch) {
+        io.execute(() -> {
+            SegmentStore store = stores.get(batch.world());
+            if (store != null) {
+                store.releaseClaim(batch.segment(), batch.offset());
+            }
+        });
+    }
+
+    /**
+     * Writes pending stacks, closes all segments and stops the I/O thread.
+     */
+    public void close() {
+        io.execute(this::writeSpilled);
+        io.execute(() -> {
+            for (Map.Entry<String, SegmentStore> entry : stores.entrySet()) {
+                try {
+                    entry.getValue().close();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to close lost and found of " + entry.getKey(), e);
+                }
+            }
+            stores.clear();
+            deflater.end();
+            inflater.end();
+        });
+        io.shutdown();
+
+        try {
+            if (!io.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Timed out writing the lost and found, recent cleared items may be missing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeSpilled() {
+        Map<String, List<byte[]>> byWorld = new LinkedHashMap<>();
+        Spill spill;
+        while ((spill = spilled.poll()) != null) {
+            try {
+                byWorld.computeIfAbsent(spill.world(), world -> new ArrayList<>()).add(spill.stack().serializeAsBytes());
+            } catch (RuntimeException e) {
+                logger.warning("Skipping item that can't be stored in the lost and found: " + e.getMessage());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        byWorld.forEach((world, items) -> {
+            try {
+                SegmentStore store = getStore(world);
+                store.writeBatch(items, now, segmentBytes);
+                store.trim(maxBytes, maxAgeMillis, now);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write " + items.size() + " items to lost and found of " + world, e);
+            }
+        });
+    }
+
+    private SegmentStore getStore(String world) throws IOException {
+        SegmentStore store = stores.get(world);
+        if (store == null) {
+            Path path = directory.resolve(world).normalize();
+            if (!directory.normalize().equals(path.getParent())) {
+                throw new IOException("Invalid world name " + world);
+            }
+
+            store = new SegmentStore(world, path, deflater, inflater, logger);
+            store.open();
+            store.trim(maxBytes, maxAgeMillis, System.currentTimeMillis());
+            stores.put(world, store);
+        }
+        return store;
+    }
+
+    /**
+     * Stack waiting to be written.
+     */
+    private record Spill(String world, ItemStack stack) {
+    }
+}
@@ -0,0 +1,14 @@
+package dev.nxms.worldclear.recovery;
+
+/**
+ * Items removed from a world by a single clear, as stored in the lost and found.
+ *
+ * @param world name of the cleared world
+ * @param segment id of the segment file holding the batch
+ * @param offset position of the batch in the segment file
+ * @param timestamp time of the clear in epoch milliseconds
+ * @param items number of item stacks
+ * @param claimed true if the items have already been recovered
+ */
+public record LostBatch(String world, long segment, int offset, long timestamp, int items, boolean claimed) {
+}
@@ -0,0 +1,390 @@
+package dev.nxms.worldclear.recovery;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only store of cleared items for a single world.
+ * Records go into segment files that are rolled at a size limit and deleted oldest first.
+ * Each record is a type byte and a length, followed by its body:
+ * a batch holds its time, item count and the deflated item bytes,
+ * a claim points at the batch that was recovered.
+ * Segments are memory-mapped for reading. Only used from the lost and found I/O thread.
+ */
+final class SegmentStore {
+
+    private static final byte BATCH = 1;
+    private static final byte CLAIM = 2;
+    private static final int RECORD_HEADER = 5;
+    private static final int BATCH_HEADER = 16;
+    private static final int CLAIM_LENGTH = 12;
+    private static final String EXTENSION = ".seg";
+
+    private final String world;
+    private final Path directory;
+    private final Deflater deflater;
+    private final Inflater inflater;
+    private final Logger logger;
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private FileChannel channel;
+
+    SegmentStore(String world, Path directory, Deflater deflater, Inflater inflater, Logger logger) {
+        this.world = world;
+        this.directory = directory;
+        this.deflater = deflater;
+        this.inflater = inflater;
+        this.logger = logger;
+    }
+
+    /**
+     * Indexes the existing segment files. A record cut off by a crash is truncated.
+     *
+     * @throws IOException if the directory can't be read
+     */
+    void open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).toList();
+        }
+
+        for (Path path : files) {
+            String name = path.getFileName().toString();
+            try {
+                segments.add(new Segment(Long.parseLong(name.substring(0, name.length() - EXTENSION.length())), path));
+            } catch (NumberFormatException e) {
+                logger.warning("Ignoring unknown lost and found file " + path);
+            }
+        }
+        segments.sort(Comparator.comparingLong(segment -> segment.id));
+
+        for (Segment segment : segments) {
+            scan(segment);
+        }
+    }
+
+    private void scan(Segment segment) throws IOException {
+        try (FileChannel file = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = file.size();
+            int position = 0;
+
+            if (size > 0) {
+                MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                while (size - position >= RECORD_HEADER) {
+                    byte type = buffer.get(position);
+                    int length = buffer.getInt(position + 1);
+                    int body = position + RECORD_HEADER;
+                    if (length < 0 || size - body < length) {
+                        break;
+                    }
+
+                    if (type == BATCH && length >= BATCH_HEADER) {
+                        long timestamp = buffer.getLong(body);
+                        entries.add(new Entry(segment.id, position, length, timestamp, buffer.getInt(body + 8)));
+                        segment.newest = Math.max(segment.newest, timestamp);
+                    } else if (type == CLAIM && length == CLAIM_LENGTH) {
+                        Entry entry = find(buffer.getLong(body), buffer.getInt(body + 8));
+                        if (entry != null) {
+                            entry.claimed = true;
+                        }
+                    } else {
+                        break;
+                    }
+                    position = body + length;
+                }
+            }
+
+            if (position < size) {
+                logger.warning("Truncating damaged lost and found segment " + segment.path + " at byte " + position);
+                file.truncate(position);
+            }
+            segment.size = position;
+        }
+    }
+
+    /**
+     * Appends the items of a clear as a single compressed batch.
+     *
+     * @param items serialized item stacks
+     * @param timestamp time of the clear in epoch milliseconds
+     * @param segmentBytes size at which a new segment is started
+     * @throws IOException if the batch can't be written
+     */
+    void writeBatch(List<byte[]> items, long timestamp, long segmentBytes) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(items.size() * 64);
+        DataOutputStream out = new DataOutputStream(raw);
+        for (byte[] item : items) {
+            out.writeInt(item.length);
+            out.write(item);
+        }
+        byte[] input = raw.toByteArray();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(BATCH_HEADER + input.length / 4);
+        DataOutputStream header = new DataOutputStream(body);
+        header.writeLong(timestamp);
+        header.writeInt(items.size());
+        header.writeInt(input.length);
+
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            body.write(chunk, 0, deflater.deflate(chunk));
+        }
+
+        Segment segment = getWritableSegment(segmentBytes);
+        int offset = append(segment, BATCH, body.toByteArray());
+        entries.add(new Entry(segment.id, offset, body.size(), timestamp, items.size()));
+        segment.newest = Math.max(segment.newest, timestamp);
+    }
+
+    /**
+     * Reads the items of a batch and marks it as claimed, so it can't be recovered twice.
+     *
+     * @param segment segment id of the batch
+     * @param offset offset of the batch
+     * @return serialized item stacks, or null if the batch is gone or already claimed
+     * @throws IOException if the batch can't be read
+     */
+    List<byte[]> claim(long segment, int offset) throws IOException {
+        Entry entry = find(segment, offset);
+        if (entry == null || entry.claimed) {
+            return null;
+        }
+
+        List<byte[]> items = read(entry);
+        entry.claimed = true;
+        return items;
+    }
+
+    /**
+     * Records a claim on disk once its items have been handed out.
+     *
+     * @param segment segment id of the batch
+     * @param offset offset of the batch
+     * @param segmentBytes size at which a new segment is started
+     * @throws IOException if the claim can't be written
+     */
+    void confirmClaim(long segment, int offset, long segmentBytes) throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(CLAIM_LENGTH).putLong(segment).putInt(offset);
+        append(getWritableSegment(segmentBytes), CLAIM, body.array());
+    }
+
+    /**
+     * Makes a claimed batch available again, e.g. if its items couldn't be handed out.
+     *
+     * @param segment segment id of the batch
+     * @param offset offset of the batch
+     */
+    void releaseClaim(long segment, int offset) {
+        Entry entry = find(segment, offset);
+        if (entry != null) {
+            entry.claimed = false;
+        }
+    }
+
+    /**
+     * Gets all stored batches.
+     *
+     * @return batches, newest first
+     */
+    List<LostBatch> getBatches() {
+        List<LostBatch> batches = new ArrayList<>(entries.size());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            batches.add(new LostBatch(world, entry.segment, entry.offset, entry.timestamp, entry.items, entry.claimed));
+        }
+        return batches;
+    }
+
+    /**
+     * Deletes the oldest segments until the store fits its size limit
+     * and no segment only holds batches older than the age limit.
+     *
+     * @param maxBytes disk space the store may use
+     * @param maxAgeMillis age after which batches are dropped, 0 to keep them
+     * @param now current epoch milliseconds
+     * @throws IOException if a segment can't be deleted
+     */
+    void trim(long maxBytes, long maxAgeMillis, long now) throws IOException {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.size;
+        }
+
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.get(0);
+            boolean expired = maxAgeMillis > 0 && now - Math.max(oldest.id, oldest.newest) > maxAgeMillis;
+            boolean active = segments.size() == 1;
+            if (!expired && (total <= maxBytes || active)) {
+                break;
+            }
+
+            if (active) {
+                closeChannel();
+            }
+            Files.deleteIfExists(oldest.path);
+            segments.remove(0);
+            entries.removeIf(entry -> entry.segment == oldest.id);
+            total -= oldest.size;
+        }
+    }
+
+    /**
+     * Flushes and closes the segment being written.
+     */
+    void close() throws IOException {
+        closeChannel();
+    }
+
+    private List<byte[]> read(Entry entry) throws IOException {
+        Segment segment = null;
+        for (Segment candidate : segments) {
+            if (candidate.id == entry.segment) {
+                segment = candidate;
+            }
+        }
+        if (segment == null) {
+            throw new IOException("Segment " + entry.segment + " of " + world + " is gone");
+        }
+
+        byte[] input;
+        int rawLength;
+        try (FileChannel file = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY,
+                    entry.offset + RECORD_HEADER, entry.length);
+            rawLength = buffer.getInt(12);
+            input = new byte[entry.length - BATCH_HEADER];
+            buffer.get(BATCH_HEADER, input);
+        }
+
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(input);
+        try {
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, rawLength - read);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != rawLength) {
+                throw new IOException("Batch at " + entry.offset + " in " + segment.path + " is incomplete");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Batch at " + entry.offset + " in " + segment.path + " is damaged", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(raw);
+        List<byte[]> items = new ArrayList<>(entry.items);
+        for (int i = 0; i < entry.items; i++) {
+            byte[] item = new byte[buffer.getInt()];
+            buffer.get(item);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private Segment getWritableSegment(long segmentBytes) throws IOException {
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || last.size >= segmentBytes) {
+            closeChannel();
+            long id = Math.max(System.currentTimeMillis(), last == null ? 0 : last.id + 1);
+            last = new Segment(id, directory.resolve(id + EXTENSION));
+            segments.add(last);
+        }
+
+        if (channel == null) {
+            channel = FileChannel.open(last.path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return last;
+    }
+
+    private int append(Segment segment, byte type, byte[] body) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + body.length);
+        record.put(type).putInt(body.length).put(body).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+
+        int offset = (int) segment.size;
+        segment.size += record.capacity();
+        return offset;
+    }
+
+    private Entry find(long segment, int offset) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            if (entry.segment == segment && entry.offset == offset) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Segment file, named after the epoch milliseconds it was started at.
+     */
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private long size;
+        private long newest;
+
+        private Segment(long id, Path path) {
+            this.id = id;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Index entry of a batch.
+     */
+    private static final class Entry {
+
+        private final long segment;
+        private final int offset;
+        private final int length;
+        private final long timestamp;
+        private final int items;
+        private boolean claimed;
+
+        private Entry(long segment, int offset, int length, long timestamp, int items) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.timestamp = timestamp;
+            this.items = items;
+        }
+    }
+}
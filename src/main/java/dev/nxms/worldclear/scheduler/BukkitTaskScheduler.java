@@ -0,0 +1,49 @@
+package dev.nxms.worldclear.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Scheduler for Paper and Spigot where all world access happens on the main thread.
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+
+    private final Plugin plugin;
+
+    public BukkitTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public TaskHandle runTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        runGlobal(task);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        runGlobal(task);
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return false;
+    }
+}
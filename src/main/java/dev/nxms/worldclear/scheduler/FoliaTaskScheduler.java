@@ -0,0 +1,50 @@
+package dev.nxms.worldclear.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Scheduler for Folia that hands work to the region or entity that owns it.
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+
+    private final Plugin plugin;
+
+    public FoliaTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public TaskHandle runTimer(Runnable task, long delayTicks, long periodTicks) {
+        // Folia rejects an initial delay below one tick
+        ScheduledTask scheduledTask = Bukkit.getGlobalRegionScheduler()
+                .runAtFixedRate(plugin, t -> task.run(), Math.max(1L, delayTicks), periodTicks);
+        return scheduledTask::cancel;
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        Bukkit.getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        // A null task means the entity was already removed and retired won't be called
+        if (entity.getScheduler().run(plugin, t -> task.run(), retired) == null) {
+            retired.run();
+        }
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package dev.nxms.worldclear.scheduler;
+
+/**
+ * Handle to a task scheduled through a {@link TaskScheduler}.
+ */
+@FunctionalInterface
+public interface TaskHandle {
+
+    /**
+     * Cancels the task. Does nothing if it already finished.
+     */
+    void cancel();
+}
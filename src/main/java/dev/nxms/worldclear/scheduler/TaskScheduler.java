@@ -0,0 +1,71 @@
+package dev.nxms.worldclear.scheduler;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Schedules plugin work on the correct thread for the running server.
+ * Paper runs everything on the main thread, Folia runs work on the region that owns it.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Runs a repeating task on the global (main) thread.
+     *
+     * @param task task to run
+     * @param delayTicks ticks before the first run
+     * @param periodTicks ticks between runs
+     * @return handle to cancel the task
+     */
+    TaskHandle runTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task once on the global (main) thread.
+     *
+     * @param task task to run
+     */
+    void runGlobal(Runnable task);
+
+    /**
+     * Runs a task on the thread that owns the given chunk.
+     *
+     * @param world world of the chunk
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @param task task to run
+     */
+    void runAtChunk(World world, int chunkX, int chunkZ, Runnable task);
+
+    /**
+     * Runs a task on the thread that owns the given entity.
+     * The retired callback runs instead if the entity was removed before the task could run.
+     *
+     * @param entity entity to run the task for
+     * @param task task to run
+     * @param retired callback if the entity is gone
+     */
+    void runForEntity(Entity entity, Runnable task, Runnable retired);
+
+    /**
+     * Checks if work is split across region threads.
+     *
+     * @return true on Folia
+     */
+    boolean isRegionized();
+
+    /**
+     * Creates the scheduler matching the running server.
+     *
+     * @param plugin owning plugin
+     * @return Folia scheduler if region threading is available, Bukkit scheduler otherwise
+     */
+    static TaskScheduler create(Plugin plugin) {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return new FoliaTaskScheduler(plugin);
+        } catch (ClassNotFoundException e) {
+            return new BukkitTaskScheduler(plugin);
+        }
+    }
+}
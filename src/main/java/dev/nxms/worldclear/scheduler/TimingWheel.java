@@ -0,0 +1,215 @@
+package dev.nxms.worldclear.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel driving all plugin timers from a single 1 tick pulse.
+ * Deadlines are monotonic {@link System#nanoTime()} values, so timers keep real time
+ * when ticks run late, and scheduling or cancelling a timer is O(1).
+ * Runs missed during a stall are skipped, a repeating timer runs at most once per pulse.
+ * Timers run on the thread of the pulse, the global (main) thread.
+ */
+public class TimingWheel {
+
+    /**
+     * Length of a server tick and of a wheel slot.
+     */
+    public static final long TICK_NANOS = 50_000_000L;
+
+    // Power of two, one revolution covers 25.6 seconds
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    // Pulses jitter around the tick length, so deadlines this close count as reached
+    private static final long TOLERANCE_NANOS = TICK_NANOS / 2;
+
+    private final Logger logger;
+    private final Timeout[] slots = new Timeout[WHEEL_SIZE];
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+
+    private long startNanos;
+    // First tick whose slot has not been processed yet
+    private long nextTick;
+    private TaskHandle pulse;
+
+    public TimingWheel(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Starts the pulse advancing the wheel every tick.
+     *
+     * @param scheduler scheduler to run the pulse on
+     */
+    public void start(TaskScheduler scheduler) {
+        stop();
+        startNanos = System.nanoTime();
+        nextTick = 0;
+        pulse = scheduler.runTimer(this::advance, 1L, 1L);
+    }
+
+    /**
+     * Stops the pulse and drops all timers.
+     */
+    public void stop() {
+        if (pulse != null) {
+            pulse.cancel();
+            pulse = null;
+        }
+        added.clear();
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            for (Timeout timeout = slots[i]; timeout != null; timeout = timeout.next) {
+                timeout.cancelled = true;
+            }
+            slots[i] = null;
+        }
+    }
+
+    /**
+     * Schedules a repeating timer. Safe to call from any thread.
+     *
+     * @param task task to run
+     * @param delayTicks ticks before the first run
+     * @param periodTicks ticks between runs, 0 to run once
+     * @return timer handle
+     */
+    public Timeout schedule(Runnable task, long delayTicks, long periodTicks) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + delayTicks * TICK_NANOS,
+                Math.max(0, periodTicks) * TICK_NANOS);
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Runs every due timer. Slots skipped while the server stalled are processed too.
+     */
+    private void advance() {
+        long now = System.nanoTime() + TOLERANCE_NANOS;
+        long targetTick = (now - startNanos) / TICK_NANOS;
+
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (!timeout.cancelled) {
+                insert(timeout);
+            }
+        }
+
+        // A full revolution visits every slot, so never process more than that
+        long fromTick = Math.max(nextTick, targetTick - MASK);
+        for (long tick = fromTick; tick <= targetTick; tick++) {
+            nextTick = tick + 1;
+            expire(tick, now);
+        }
+    }
+
+    /**
+     * Runs the due timers of a slot. Timers due in a later revolution stay in place,
+     * timers due later in the slot's own tick move on to the next slot.
+     */
+    private void expire(long tick, long now) {
+        Timeout timeout = slots[(int) (tick & MASK)];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+
+            if (timeout.cancelled) {
+                unlink(timeout);
+            } else if (timeout.deadline > now) {
+                if ((timeout.deadline - startNanos) / TICK_NANOS <= tick) {
+                    unlink(timeout);
+                    insert(timeout);
+                }
+            } else {
+                unlink(timeout);
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Timer task failed", e);
+                }
+
+                // Fixed rate, periods missed while the server stalled are skipped
+                if (timeout.period > 0 && !timeout.cancelled) {
+                    long deadline = timeout.deadline + timeout.period;
+                    if (deadline <= now) {
+                        deadline += ((now - deadline) / timeout.period + 1) * timeout.period;
+                    }
+                    timeout.deadline = deadline;
+                    insert(timeout);
+                }
+            }
+
+            timeout = next;
+        }
+    }
+
+    /**
+     * Links a timer into the slot of its deadline, or the next unprocessed slot if the deadline has passed.
+     */
+    private void insert(Timeout timeout) {
+        long tick = Math.max(nextTick, (timeout.deadline - startNanos) / TICK_NANOS);
+        int slot = (int) (tick & MASK);
+
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = slots[slot];
+        if (slots[slot] != null) {
+            slots[slot].prev = timeout;
+        }
+        slots[slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    /**
+     * A timer on the wheel. Cancelled timers are unlinked when their slot comes around.
+     */
+    public static final class Timeout implements TaskHandle {
+
+        private final Runnable task;
+        private final long period;
+        private volatile long deadline;
+        private volatile boolean cancelled;
+
+        // Only touched by the pulse thread
+        private Timeout prev;
+        private Timeout next;
+        private int slot;
+
+        private Timeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Gets the time until the next run.
+         *
+         * @return nanoseconds until the next run, 0 if it is due
+         */
+        public long getRemainingNanos() {
+            return Math.max(0, deadline - System.nanoTime());
+        }
+    }
+}
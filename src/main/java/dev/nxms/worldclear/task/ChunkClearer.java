@@ -0,0 +1,227 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.filter.ClearFilter;
+import dev.nxms.worldclear.metrics.ClearMetrics;
+import dev.nxms.worldclear.recovery.LostAndFound;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import dev.nxms.worldclear.tracker.LootProtection;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Removes the entities of a single chunk that match the clear filter.
+ * Shared by the main thread sweep and the Folia region sweep.
+ */
+public class ChunkClearer {
+
+    private static final Entity[] NO_ENTITIES = new Entity[0];
+
+    private final ItemTracker tracker;
+    private final LootProtection protection;
+    private final LostAndFound lostAndFound;
+    private final ClearFilter filter;
+    private final ClearMetrics.WorldStats stats;
+    private final ClearPlan.WorldPlan plan;
+
+    public ChunkClearer(ItemTracker tracker, LootProtection protection, ClearFilter filter,
+                        ClearMetrics.WorldStats stats) {
+        this(tracker, protection, null, filter, stats, null);
+    }
+
+    /**
+     * Creates a clearer that follows a plan made by a {@link PreScan}.
+     * Entities the scan rejected are skipped, all others are checked against the filter as usual.
+     *
+     * @param tracker item index
+     * @param protection protected loot, or null to protect nothing
+     * @param lostAndFound store for removed items, or null to delete them
+     * @param filter filter for entities the scan didn't reject
+     * @param stats stats to record into
+     * @param plan plan of the world, or null to check every entity
+     */
+    public ChunkClearer(ItemTracker tracker, LootProtection protection, LostAndFound lostAndFound,
+                        ClearFilter filter, ClearMetrics.WorldStats stats, ClearPlan.WorldPlan plan) {
+        this.tracker = tracker;
+        this.protection = protection;
+        this.lostAndFound = lostAndFound;
+        this.filter = filter;
+        this.stats = stats;
+        this.plan = plan;
+    }
+
+    /**
+     * Gets the filter deciding which entities are removed.
+     *
+     * @return clear filter
+     */
+    public ClearFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Gets the chunks of a world that may hold entities to clear.
+     * Uses the item index when only dropped items are cleared.
+     *
+     * @param world world to query
+     * @return packed chunk keys, empty for protected worlds
+     */
+    public long[] getChunkKeys(World world) {
+        if (!filter.allowsWorld(world)) {
+            return new long[0];
+        }
+        return filter.isItemsOnly() ? tracker.getChunkKeys(world) : tracker.getLoadedChunkKeys(world);
+    }
+
+    /**
+     * Gets the number of dropped items indexed in a chunk, as an estimate of what clearing it removes.
+     *
+     * @param world world of the chunk
+     * @param chunkKey packed chunk key
+     * @return indexed item count
+     */
+    public int getItemCount(World world, long chunkKey) {
+        return tracker.getItemCount(world, chunkKey);
+    }
+
+    /**
+     * Removes all matching entities of a chunk.
+     * Excess minecarts and boats are removed beyond the per-chunk limit, ridden ones are kept.
+     *
+     * @param world world of the chunk
+     * @param chunkKey packed chunk key
+     * @param foreign receives entities owned by another region, or null to skip them
+     * @return number of entities removed
+     */
+    public int clearChunk(World world, long chunkKey, Consumer<Entity> foreign) {
+        return clearChunk(world, chunkKey, foreign, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes matching entities of a chunk, stopping once the limit is reached.
+     * A chunk that hit the limit can be cleared again later to remove the rest.
+     *
+     * @param world world of the chunk
+     * @param chunkKey packed chunk key
+     * @param foreign receives entities owned by another region, or null to skip them
+     * @param limit maximum number of entities to remove
+     * @return number of entities removed
+     */
+    public int clearChunk(World world, long chunkKey, Consumer<Entity> foreign, int limit) {
+        long start = System.nanoTime();
+        int removed = 0;
+        int vehicles = 0;
+        int scanned = 0;
+
+        Entity[] entities = getEntities(world, chunkKey);
+        for (Entity entity : entities) {
+            if (removed >= limit) {
+                break;
+            }
+            scanned++;
+            if (!entity.isValid()) {
+                if (entity instanceof Item item) {
+                    tracker.untrack(item);
+                }
+                continue;
+            }
+
+            if (!Bukkit.isOwnedByCurrentRegion(entity)) {
+                if (foreign != null) {
+                    foreign.accept(entity);
+                }
+                continue;
+            }
+
+            // Items drift out of the chunk they were indexed under, keep the counts per chunk right
+            if (entity instanceof Item item) {
+                tracker.relocate(item, chunkKey);
+            }
+
+            if (isProtected(entity)) {
+                continue;
+            }
+
+            // The plan only skips entities the scan rejected. Planned ones are checked again,
+            // they may have been named, tagged or boarded during the countdown
+            if (plan != null) {
+                UUID id = entity.getUniqueId();
+                if (plan.isScanned(id) && !plan.isPlanned(id)) {
+                    continue;
+                }
+            }
+
+            if (!filter.test(entity)) {
+                continue;
+            }
+
+            if (filter.isVehicle(entity.getType())
+                    && (!entity.isEmpty() || ++vehicles <= filter.getMaxVehiclesPerChunk())) {
+                continue;
+            }
+
+            remove(entity);
+            removed++;
+        }
+
+        stats.recordChunk(scanned, removed, System.nanoTime() - start);
+        return removed;
+    }
+
+    /**
+     * Removes a single entity if it is still valid and matches the filter.
+     *
+     * @param entity entity to remove
+     * @return true if the entity was removed
+     */
+    public boolean clearEntity(Entity entity) {
+        if (!entity.isValid() || isProtected(entity) || !filter.test(entity)) {
+            stats.recordEntity(false);
+            return false;
+        }
+
+        remove(entity);
+        stats.recordEntity(true);
+        return true;
+    }
+
+    /**
+     * Checks if an entity is player loot still within its grace period.
+     *
+     * @param entity entity to check
+     * @return true if the entity must be kept
+     */
+    public boolean isProtected(Entity entity) {
+        return protection != null && entity instanceof Item && protection.isProtected(entity.getUniqueId());
+    }
+
+    private void remove(Entity entity) {
+        if (entity instanceof Item item) {
+            ItemStack stack = item.getItemStack();
+            tracker.untrack(item);
+            stats.recordMaterial(stack.getType());
+            if (lostAndFound != null) {
+                lostAndFound.spill(item.getWorld(), stack);
+            }
+        }
+        entity.remove();
+    }
+
+    Entity[] getEntities(World world, long chunkKey) {
+        if (filter.isItemsOnly()) {
+            return tracker.getItems(world, chunkKey);
+        }
+
+        int chunkX = ItemTracker.chunkX(chunkKey);
+        int chunkZ = ItemTracker.chunkZ(chunkKey);
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return NO_ENTITIES;
+        }
+        return world.getChunkAt(chunkX, chunkZ).getEntities();
+    }
+}
@@ -0,0 +1,77 @@
+package dev.nxms.worldclear.task;
+
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Result of a {@link PreScan}: which of the scanned entities a clear removes.
+ * Built on a worker thread and read-only afterwards.
+ */
+public final class ClearPlan {
+
+    private final Map<UUID, WorldPlan> worlds;
+
+    ClearPlan(Map<UUID, WorldPlan> worlds) {
+        this.worlds = Map.copyOf(worlds);
+    }
+
+    /**
+     * Gets the plan of a world.
+     *
+     * @param world world to look up
+     * @return plan, or null if the world wasn't scanned
+     */
+    public WorldPlan world(World world) {
+        return worlds.get(world.getUID());
+    }
+
+    /**
+     * Gets the number of entities planned for removal.
+     *
+     * @return planned removals across all worlds
+     */
+    public int size() {
+        int size = 0;
+        for (WorldPlan plan : worlds.values()) {
+            size += plan.remove.size();
+        }
+        return size;
+    }
+
+    /**
+     * Decisions for the entities of a single world.
+     */
+    public static final class WorldPlan {
+
+        private final Set<UUID> scanned;
+        private final Set<UUID> remove;
+
+        WorldPlan(Set<UUID> scanned, Set<UUID> remove) {
+            this.scanned = scanned;
+            this.remove = remove;
+        }
+
+        /**
+         * Checks if an entity was planned for removal.
+         *
+         * @param id entity id
+         * @return true if the entity should be removed
+         */
+        public boolean isPlanned(UUID id) {
+            return remove.contains(id);
+        }
+
+        /**
+         * Checks if an entity was part of the scan, so a missing removal means it is kept.
+         *
+         * @param id entity id
+         * @return true if the entity was scanned
+         */
+        public boolean isScanned(UUID id) {
+            return scanned.contains(id);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package dev.nxms.worldclear.task;
+
+import org.bukkit.World;
+
+/**
+ * A world to sweep together with the clearer holding that world's filter.
+ *
+ * @param world world to sweep
+ * @param clearer clearer for the world's chunks
+ */
+public record ClearTarget(World world, ChunkClearer clearer) {
+}
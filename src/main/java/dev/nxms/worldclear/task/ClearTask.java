@@ -1,25 +1,25 @@
 package dev.nxms.worldclear.task;
 
 import dev.nxms.worldclear.WorldClear;
-import org.bukkit.scheduler.BukkitRunnable;
+import dev.nxms.worldclear.manager.ClearSchedule;
 
 /**
  * Task that runs periodically to initiate item clearing.
  * Triggers countdown before actual clearing.
  */
-public class ClearTask extends BukkitRunnable {
+public class ClearTask implements Runnable {
 
     private final WorldClear plugin;
-    private boolean firstRun = true;
+    private final ClearSchedule schedule;
 
-    public ClearTask(WorldClear plugin) {
+    public ClearTask(WorldClear plugin, ClearSchedule schedule) {
         this.plugin = plugin;
+        this.schedule = schedule;
     }
 
     @Override
     public void run() {
-        // On first run, just start countdown (task was scheduled with initial delay)
-        // On subsequent runs, we're at the start of countdown period
-        plugin.getClearManager().startCountdown();
+        // The task was scheduled with an initial delay, so every run is at the start of a countdown
+        plugin.getClearManager().startCountdown(schedule);
     }
-}
\ No newline at end of file
+}
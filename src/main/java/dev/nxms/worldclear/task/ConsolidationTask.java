@@ -0,0 +1,238 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.scheduler.TaskHandle;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import dev.nxms.worldclear.tracker.LootProtection;
+import dev.nxms.worldclear.util.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Task that merges nearby identical item stacks into full stacks.
+ * Items are grouped with a spatial hash so only stacks sharing a cell are compared.
+ * Catches stacks vanilla merging missed, e.g. across chunk borders.
+ * A pass is spread over several ticks, each tick handing out chunks until the tick budget is used up.
+ */
+public class ConsolidationTask implements Runnable {
+
+    // Chunks merged together with a chunk, if no earlier group of the pass took them
+    private static final int[][] NEIGHBOURS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    private final WorldClear plugin;
+
+    // Pass in progress, only used on the global thread
+    private List<World> worlds = List.of();
+    private int worldIndex;
+    private World world;
+    private long[] chunkKeys;
+    private int chunkIndex;
+    private LongObjectMap<Boolean> remaining;
+    private TaskHandle sliceTask;
+
+    public ConsolidationTask(WorldClear plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts a pass over every world, unless one is still running.
+     */
+    @Override
+    public void run() {
+        if (sliceTask != null) {
+            return;
+        }
+
+        worlds = List.copyOf(Bukkit.getWorlds());
+        worldIndex = 0;
+        chunkKeys = null;
+        sliceTask = plugin.getTaskScheduler().runTimer(this::slice, 0L, 1L);
+    }
+
+    /**
+     * Stops the pass in progress.
+     */
+    public void stop() {
+        if (sliceTask != null) {
+            sliceTask.cancel();
+            sliceTask = null;
+        }
+        worlds = List.of();
+        remaining = null;
+    }
+
+    /**
+     * Hands out chunk groups until the tick budget is used up.
+     * On Paper the groups are merged right away, so the budget covers the merging itself.
+     */
+    private void slice() {
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        double cellSize = plugin.getConfigManager().getConsolidationRadius();
+        long deadline = System.nanoTime() + plugin.getConfigManager().getTickBudgetNanos();
+
+        while (System.nanoTime() < deadline) {
+            if (!advance()) {
+                stop();
+                return;
+            }
+
+            long chunkKey = chunkKeys[chunkIndex++];
+            if (remaining.remove(chunkKey) == null) {
+                // Already merged as the neighbour of an earlier chunk
+                continue;
+            }
+
+            int chunkX = ItemTracker.chunkX(chunkKey);
+            int chunkZ = ItemTracker.chunkZ(chunkKey);
+            long[] group = new long[NEIGHBOURS.length + 1];
+            int size = 0;
+            group[size++] = chunkKey;
+            for (int[] offset : NEIGHBOURS) {
+                long key = ItemTracker.chunkKey(chunkX + offset[0], chunkZ + offset[1]);
+                if (remaining.remove(key) != null) {
+                    group[size++] = key;
+                }
+            }
+
+            World current = world;
+            long[] keys = Arrays.copyOf(group, size);
+            scheduler.runAtChunk(current, chunkX, chunkZ, () -> consolidate(current, keys, cellSize));
+        }
+    }
+
+    /**
+     * Moves the cursor to the next chunk holding items.
+     *
+     * @return false if the pass over all worlds is done
+     */
+    private boolean advance() {
+        while (chunkKeys == null || chunkIndex >= chunkKeys.length) {
+            if (worldIndex >= worlds.size()) {
+                return false;
+            }
+            world = worlds.get(worldIndex++);
+            chunkKeys = plugin.getItemTracker().getChunkKeys(world);
+            chunkIndex = 0;
+            remaining = new LongObjectMap<>(chunkKeys.length);
+            for (long key : chunkKeys) {
+                remaining.put(key, Boolean.TRUE);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges the items of a group of neighbouring chunks.
+     * Every chunk is in a single group per pass, so its items are only looked at once.
+     * On Folia the group may span regions, the chunks of other regions are handed on
+     * to the region owning the first of them, until every chunk was merged by its owner.
+     * Items that drifted out of the region's chunks are left for the next pass.
+     */
+    private void consolidate(World world, long[] chunkKeys, double cellSize) {
+        ItemTracker tracker = plugin.getItemTracker();
+        LootProtection protection = plugin.getLootProtection();
+        LongObjectMap<List<Item>> cells = new LongObjectMap<>();
+
+        long[] owned = new long[chunkKeys.length];
+        long[] foreign = new long[chunkKeys.length];
+        int ownedCount = 0;
+        int foreignCount = 0;
+        for (long key : chunkKeys) {
+            if (Bukkit.isOwnedByCurrentRegion(world, ItemTracker.chunkX(key), ItemTracker.chunkZ(key))) {
+                owned[ownedCount++] = key;
+            } else {
+                foreign[foreignCount++] = key;
+            }
+        }
+
+        // The task runs at the first chunk, if even that moved away the group waits for the next pass
+        if (ownedCount == 0) {
+            return;
+        }
+        if (foreignCount > 0) {
+            long[] rest = Arrays.copyOf(foreign, foreignCount);
+            plugin.getTaskScheduler().runAtChunk(world, ItemTracker.chunkX(rest[0]), ItemTracker.chunkZ(rest[0]),
+                    () -> consolidate(world, rest, cellSize));
+        }
+
+        for (int i = 0; i < ownedCount; i++) {
+            long key = owned[i];
+            for (Item item : tracker.getItems(world, key)) {
+                // Owned items only merge with the same owner, skip them entirely
+                // Protected loot stays where it is so its owner finds it
+                if (!item.isValid() || item.getOwner() != null || !Bukkit.isOwnedByCurrentRegion(item)
+                        || protection.isProtected(item.getUniqueId())) {
+                    continue;
+                }
+                cells.computeIfAbsent(cellKey(item.getLocation(), cellSize), ArrayList::new).add(item);
+            }
+        }
+
+        cells.forEach((cell, items) -> {
+            if (items.size() > 1) {
+                mergeCell(items);
+            }
+        });
+    }
+
+    /**
+     * Moves stack amounts onto earlier similar stacks in the same cell,
+     * removing items that end up empty.
+     */
+    private void mergeCell(List<Item> items) {
+        ItemTracker tracker = plugin.getItemTracker();
+
+        for (int i = 1; i < items.size(); i++) {
+            Item source = items.get(i);
+            ItemStack sourceStack = source.getItemStack();
+
+            for (int j = 0; j < i && sourceStack.getAmount() > 0; j++) {
+                Item target = items.get(j);
+                if (!target.isValid()) {
+                    continue;
+                }
+
+                ItemStack targetStack = target.getItemStack();
+                int space = targetStack.getMaxStackSize() - targetStack.getAmount();
+                if (space <= 0 || !targetStack.isSimilar(sourceStack)) {
+                    continue;
+                }
+
+                int moved = Math.min(space, sourceStack.getAmount());
+                targetStack.setAmount(targetStack.getAmount() + moved);
+                sourceStack.setAmount(sourceStack.getAmount() - moved);
+                target.setItemStack(targetStack);
+
+                // Keep the younger age so merged loot doesn't despawn earlier
+                target.setTicksLived(Math.min(target.getTicksLived(), source.getTicksLived()));
+            }
+
+            if (sourceStack.getAmount() <= 0) {
+                tracker.untrack(source);
+                source.remove();
+            } else {
+                source.setItemStack(sourceStack);
+            }
+        }
+    }
+
+    /**
+     * Packs the spatial hash cell of a location into a single long.
+     */
+    private static long cellKey(Location location, double cellSize) {
+        long x = (long) Math.floor(location.getX() / cellSize) & 0x1FFFFF;
+        long y = (long) Math.floor(location.getY() / cellSize) & 0x1FFFFF;
+        long z = (long) Math.floor(location.getZ() / cellSize) & 0x1FFFFF;
+        return x | (y << 21) | (z << 42);
+    }
+}
@@ -0,0 +1,184 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.manager.ConfigManager;
+import dev.nxms.worldclear.manager.MessageCatalog;
+import dev.nxms.worldclear.manager.MessageManager;
+import dev.nxms.worldclear.manager.MessageTemplate;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Countdown messages rendered once for every second of a countdown.
+ * Each channel only has frames for the seconds it is configured to show,
+ * so showing a frame is a plain array lookup.
+ * Frames are rendered per language on first use, and players are grouped by language when shown.
+ */
+public class CountdownFrames {
+
+    // Keeps titles visible until the next second replaces them
+    private static final Title.Times TITLE_TIMES =
+            Title.Times.times(Duration.ZERO, Duration.ofMillis(1100), Duration.ofMillis(250));
+
+    private final MessageManager messages;
+    private final int start;
+    private final boolean[] chatMarks;
+    private final boolean[] actionBarMarks;
+    private final boolean[] titleMarks;
+    private final boolean[] bossBarMarks;
+    private final BossBar.Color bossBarColor;
+    private final BossBar.Overlay bossBarOverlay;
+    private final Map<MessageCatalog, Variant> variants = new ConcurrentHashMap<>();
+
+    private CountdownFrames(MessageManager messages, int start, boolean[] chatMarks, boolean[] actionBarMarks,
+                            boolean[] titleMarks, boolean[] bossBarMarks, BossBar.Color bossBarColor,
+                            BossBar.Overlay bossBarOverlay) {
+        this.messages = messages;
+        this.start = start;
+        this.chatMarks = chatMarks;
+        this.actionBarMarks = actionBarMarks;
+        this.titleMarks = titleMarks;
+        this.bossBarMarks = bossBarMarks;
+        this.bossBarColor = bossBarColor;
+        this.bossBarOverlay = bossBarOverlay;
+    }
+
+    /**
+     * Renders all frames of the default language from the start second down to one.
+     *
+     * @param config config holding the countdown channels
+     * @param messages messages to render the frames from
+     * @param countdownStart second the countdown starts at
+     * @return rendered frames
+     */
+    public static CountdownFrames render(ConfigManager config, MessageManager messages, int countdownStart) {
+        int start = Math.max(0, countdownStart);
+        CountdownFrames frames = new CountdownFrames(messages, start,
+                config.getCountdownMarks("chat", start),
+                config.getCountdownMarks("action-bar", start),
+                config.getCountdownMarks("title", start),
+                config.getCountdownMarks("boss-bar", start),
+                config.getBossBarColor(), config.getBossBarOverlay());
+        frames.getVariant(messages.getDefaultCatalog());
+        return frames;
+    }
+
+    /**
+     * Gets the frames of a language, rendering them on first use.
+     */
+    private Variant getVariant(MessageCatalog catalog) {
+        Variant variant = variants.get(catalog);
+        return variant != null ? variant : variants.computeIfAbsent(catalog, this::renderVariant);
+    }
+
+    private Variant renderVariant(MessageCatalog catalog) {
+        MessageTemplate chatTemplate = catalog.getTemplate("clear-countdown");
+        MessageTemplate actionBarTemplate = catalog.getTemplate("clear-countdown-actionbar");
+        MessageTemplate titleTemplate = catalog.getTemplate("clear-countdown-title");
+        MessageTemplate subtitleTemplate = catalog.getTemplate("clear-countdown-subtitle");
+        MessageTemplate bossBarTemplate = catalog.getTemplate("clear-countdown-bossbar");
+
+        Component[] chat = new Component[start + 1];
+        Component[] actionBar = new Component[start + 1];
+        Title[] titles = new Title[start + 1];
+        Component[] bossBarNames = new Component[start + 1];
+        float[] bossBarProgress = new float[start + 1];
+        boolean usesBossBar = false;
+
+        for (int second = 1; second <= start; second++) {
+            String value = String.valueOf(second);
+
+            if (chatMarks[second]) {
+                chat[second] = chatTemplate.component("seconds", value);
+            }
+            if (actionBarMarks[second]) {
+                actionBar[second] = actionBarTemplate.component("seconds", value);
+            }
+            if (titleMarks[second]) {
+                titles[second] = Title.title(
+                        titleTemplate.component("seconds", value),
+                        subtitleTemplate.component("seconds", value),
+                        TITLE_TIMES);
+            }
+            if (bossBarMarks[second]) {
+                bossBarNames[second] = bossBarTemplate.component("seconds", value);
+                bossBarProgress[second] = (float) second / start;
+                usesBossBar = true;
+            }
+        }
+
+        BossBar bossBar = usesBossBar
+                ? BossBar.bossBar(Component.empty(), 1.0f, bossBarColor, bossBarOverlay)
+                : null;
+        return new Variant(chat, actionBar, titles, bossBarNames, bossBarProgress, bossBar);
+    }
+
+    /**
+     * Shows the frames of a second on every configured channel, in the language of each player.
+     *
+     * @param audience audience to show the frames to
+     * @param second seconds remaining
+     */
+    public void show(Audience audience, int second) {
+        if (second < 1 || second > start) {
+            return;
+        }
+        messages.forEachLanguage(audience, (catalog, members) -> getVariant(catalog).show(members, second));
+    }
+
+    /**
+     * Hides anything that stays on screen after the countdown.
+     *
+     * @param audience audience the frames were shown to
+     */
+    public void hide(Audience audience) {
+        for (Variant variant : variants.values()) {
+            if (variant.bossBar() != null) {
+                audience.hideBossBar(variant.bossBar());
+            }
+        }
+    }
+
+    /**
+     * Gets the second the countdown starts at.
+     *
+     * @return countdown start in seconds
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Frames of one language, each channel indexed by second.
+     */
+    private record Variant(Component[] chat, Component[] actionBar, Title[] titles, Component[] bossBarNames,
+                           float[] bossBarProgress, BossBar bossBar) {
+
+        private void show(Audience audience, int second) {
+            if (chat[second] != null) {
+                audience.sendMessage(chat[second]);
+            }
+            if (actionBar[second] != null) {
+                audience.sendActionBar(actionBar[second]);
+            }
+            if (titles[second] != null) {
+                audience.showTitle(titles[second]);
+            }
+
+            if (bossBar == null) {
+                return;
+            }
+            if (bossBarNames[second] != null) {
+                bossBar.name(bossBarNames[second]).progress(bossBarProgress[second]);
+                audience.showBossBar(bossBar);
+            } else {
+                audience.hideBossBar(bossBar);
+            }
+        }
+    }
+}
@@ -1,44 +1,108 @@
 package dev.nxms.worldclear.task;
 
 import dev.nxms.worldclear.WorldClear;
-import org.bukkit.scheduler.BukkitRunnable;
+import dev.nxms.worldclear.manager.ClearSchedule;
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Task that handles countdown messages before clearing.
- * Broadcasts countdown every second until clear.
+ * Shows the pre-rendered frame of every second until clear.
+ * The audience is resolved once and rebuilt only after players joined, left,
+ * changed worlds or muted notices.
  */
-public class CountdownTask extends BukkitRunnable {
+public class CountdownTask implements Runnable, Listener {
 
     private final WorldClear plugin;
-    private int secondsRemaining;
+    private final ClearSchedule schedule;
+    private final CountdownFrames frames;
+    private volatile int secondsRemaining;
 
-    public CountdownTask(WorldClear plugin, int seconds) {
+    // Bumped by player events on any thread, compared on the countdown's thread
+    private final AtomicInteger playerChanges = new AtomicInteger();
+    private Audience audience;
+    private int audiencePlayerChanges;
+    private int audienceMuteRevision;
+
+    public CountdownTask(WorldClear plugin, ClearSchedule schedule, CountdownFrames frames) {
         this.plugin = plugin;
-        this.secondsRemaining = seconds;
+        this.schedule = schedule;
+        this.frames = frames;
+        this.secondsRemaining = frames.getStart();
+    }
+
+    /**
+     * Starts following the players who join, leave or change worlds during the countdown.
+     */
+    public void start() {
+        Bukkit.getPluginManager().registerEvents(this, plugin);
     }
 
     @Override
     public void run() {
         if (secondsRemaining <= 0) {
-            // Execute clear
-            int count = plugin.getClearManager().clearItems();
-
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("count", String.valueOf(count));
-            plugin.getMessageManager().broadcast("clear-success", placeholders);
-
-            cancel();
+            // Execute clear, the result is broadcast once all slices are done
+            plugin.getClearManager().finishCountdown(schedule);
             return;
         }
 
-        // Broadcast countdown message
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("seconds", String.valueOf(secondsRemaining));
-        plugin.getMessageManager().broadcast("clear-countdown", placeholders);
+        // Show countdown frame
+        frames.show(getAudience(), secondsRemaining);
 
         secondsRemaining--;
     }
-}
\ No newline at end of file
+
+    private Audience getAudience() {
+        // Read before resolving, a change made meanwhile rebuilds it again next second
+        int changes = playerChanges.get();
+        int muteRevision = plugin.getNotifyPreferences().getRevision();
+        if (audience == null || changes != audiencePlayerChanges || muteRevision != audienceMuteRevision) {
+            audience = plugin.getClearManager().getAudience(schedule);
+            audiencePlayerChanges = changes;
+            audienceMuteRevision = muteRevision;
+        }
+        return audience;
+    }
+
+    /**
+     * Gets the seconds left before the clear, as of the next run.
+     *
+     * @return seconds remaining
+     */
+    public int getSecondsRemaining() {
+        return secondsRemaining;
+    }
+
+    /**
+     * Stops following players and hides countdown frames left on screen when the countdown
+     * ends or is stopped early. Hidden for everyone since players may have left the schedule's worlds meanwhile.
+     */
+    public void stop() {
+        HandlerList.unregisterAll(this);
+        frames.hide(Bukkit.getServer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        playerChanges.incrementAndGet();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        playerChanges.incrementAndGet();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        playerChanges.incrementAndGet();
+    }
+}
@@ -0,0 +1,67 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.manager.ClearManager;
+import dev.nxms.worldclear.manager.ConfigManager;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.bukkit.Bukkit;
+
+/**
+ * Task that samples dropped item density and server load for adaptive clearing.
+ * Starts the countdown early once a threshold is crossed, and only re-arms
+ * after the samples have dropped back below the re-arm level.
+ */
+public class DensitySampler implements Runnable {
+
+    private final WorldClear plugin;
+    private boolean armed = true;
+
+    public DensitySampler(WorldClear plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        ConfigManager config = plugin.getConfigManager();
+        ClearManager clearManager = plugin.getClearManager();
+        ItemTracker tracker = plugin.getItemTracker();
+
+        int items = tracker.getItemCount();
+        int densestChunk = tracker.getDensestChunkCount();
+        double mspt = Bukkit.getAverageTickTime();
+        double tps = Bukkit.getTPS()[0];
+
+        // A lagging server lowers the item thresholds
+        boolean lagging = mspt > config.getAdaptiveMaxMspt() || tps < config.getAdaptiveMinTps();
+        double multiplier = lagging ? config.getAdaptiveLagMultiplier() : 1.0;
+        double itemLimit = config.getAdaptiveMaxItems() * multiplier;
+        double chunkLimit = config.getAdaptiveMaxChunkItems() * multiplier;
+
+        if (!armed) {
+            double rearm = config.getAdaptiveRearmPercent() / 100.0;
+            if (items < itemLimit * rearm && densestChunk < chunkLimit * rearm) {
+                armed = true;
+            }
+            return;
+        }
+
+        if (items < itemLimit && densestChunk < chunkLimit) {
+            return;
+        }
+
+        if (clearManager.isCountdownRunning() || clearManager.isSweepRunning()) {
+            return;
+        }
+
+        long sinceLastClear = (System.currentTimeMillis() - clearManager.getLastClearTime()) / 1000L;
+        if (sinceLastClear < config.getAdaptiveMinGapSeconds()) {
+            return;
+        }
+
+        armed = false;
+        plugin.getLogger().info(String.format(
+                "Item density threshold reached (%d items, %d in densest chunk, %.1f mspt). Starting clear early.",
+                items, densestChunk, mspt));
+        clearManager.startEarlyClear();
+    }
+}
@@ -0,0 +1,174 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Task that clears only chunks holding more dropped items than the configured limit.
+ * The newest stacks of a hotspot can be kept, and every hit chunk is reported
+ * so admins can find the offending farms.
+ */
+public class HotspotTask implements Runnable {
+
+    private static final String NOTIFY_PERMISSION = "worldclear.hotspot.notify";
+
+    private final WorldClear plugin;
+    private final Function<World, ChunkClearer> clearerFactory;
+    private boolean running;
+
+    /**
+     * Creates the scan.
+     *
+     * @param plugin plugin instance
+     * @param clearerFactory creates the clearer of a world's schedule profile, removals go through it
+     */
+    public HotspotTask(WorldClear plugin, Function<World, ChunkClearer> clearerFactory) {
+        this.plugin = plugin;
+        this.clearerFactory = clearerFactory;
+    }
+
+    @Override
+    public void run() {
+        // Skip this scan if the previous one is still waiting on regions
+        if (running) {
+            return;
+        }
+
+        ItemTracker tracker = plugin.getItemTracker();
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        int threshold = plugin.getConfigManager().getHotspotMaxItems();
+        int keepNewest = plugin.getConfigManager().getHotspotKeepNewest();
+
+        Queue<Hotspot> hotspots = new ConcurrentLinkedQueue<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        running = true;
+
+        for (World world : Bukkit.getWorlds()) {
+            if (!plugin.getConfigManager().getScheduleProfile(world).filter().allowsWorld(world)) {
+                continue;
+            }
+
+            ChunkClearer clearer = null;
+            for (long chunkKey : tracker.getChunkKeys(world)) {
+                if (tracker.getItemCount(world, chunkKey) <= threshold) {
+                    continue;
+                }
+
+                if (clearer == null) {
+                    clearer = clearerFactory.apply(world);
+                }
+
+                ChunkClearer worldClearer = clearer;
+                int chunkX = ItemTracker.chunkX(chunkKey);
+                int chunkZ = ItemTracker.chunkZ(chunkKey);
+                pending.incrementAndGet();
+                scheduler.runAtChunk(world, chunkX, chunkZ, () -> {
+                    try {
+                        int removed = trimChunk(tracker.getItems(world, chunkKey), keepNewest, worldClearer);
+                        if (removed > 0) {
+                            hotspots.add(new Hotspot(world.getName(), chunkX, chunkZ, removed));
+                        }
+                    } finally {
+                        if (pending.decrementAndGet() == 0) {
+                            scheduler.runGlobal(() -> finish(hotspots));
+                        }
+                    }
+                });
+            }
+        }
+
+        if (pending.decrementAndGet() == 0) {
+            finish(hotspots);
+        }
+    }
+
+    /**
+     * Removes all but the newest items of an overloaded chunk.
+     *
+     * @param items items tracked in the chunk
+     * @param keepNewest number of newest stacks to keep
+     * @param clearer clearer of the world, records the removals and feeds the lost and found
+     * @return number of items removed
+     */
+    private int trimChunk(Item[] items, int keepNewest, ChunkClearer clearer) {
+        // Items that moved into another region are left for the next scan
+        Item[] owned = Arrays.stream(items)
+                .filter(item -> Bukkit.isOwnedByCurrentRegion(item) && item.isValid()
+                        && !clearer.isProtected(item) && clearer.getFilter().test(item))
+                .sorted(Comparator.comparingInt(Item::getTicksLived))
+                .toArray(Item[]::new);
+
+        int removed = 0;
+        for (int i = keepNewest; i < owned.length; i++) {
+            if (clearer.clearEntity(owned[i])) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Reports the cleared hotspots to the console and to notified players.
+     */
+    private void finish(Queue<Hotspot> hotspots) {
+        running = false;
+        if (hotspots.isEmpty()) {
+            return;
+        }
+
+        List<Hotspot> sorted = new ArrayList<>(hotspots);
+        sorted.sort(Comparator.comparingInt(Hotspot::removed).reversed());
+        int total = sorted.stream().mapToInt(Hotspot::removed).sum();
+        plugin.getMetrics().recordHotspot(total);
+
+        plugin.getLogger().info("Cleared " + total + " items from " + sorted.size() + " overloaded chunks:");
+        for (Hotspot hotspot : sorted) {
+            plugin.getLogger().info(String.format("  %s chunk %d, %d (block %d, %d): %d items",
+                    hotspot.world(), hotspot.chunkX(), hotspot.chunkZ(),
+                    hotspot.chunkX() << 4, hotspot.chunkZ() << 4, hotspot.removed()));
+        }
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (!player.hasPermission(NOTIFY_PERMISSION)) {
+                continue;
+            }
+
+            plugin.getMessageManager().send(player, "hotspot-cleared",
+                    "count", String.valueOf(total), "chunks", String.valueOf(sorted.size()));
+            for (Hotspot hotspot : sorted) {
+                plugin.getMessageManager().send(player, "hotspot-chunk", hotspot.placeholders());
+            }
+        }
+    }
+
+    /**
+     * Record for a cleared chunk.
+     */
+    private record Hotspot(String world, int chunkX, int chunkZ, int removed) {
+
+        private Map<String, String> placeholders() {
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("world", world);
+            placeholders.put("x", String.valueOf(chunkX << 4));
+            placeholders.put("z", String.valueOf(chunkZ << 4));
+            placeholders.put("count", String.valueOf(removed));
+            return placeholders;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.filter.ClearFilter;
+import dev.nxms.worldclear.filter.EntitySnapshot;
+import dev.nxms.worldclear.scheduler.TaskHandle;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.scheduler.TimingWheel;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import dev.nxms.worldclear.util.LongObjectMap;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plans a clear while its countdown runs.
+ * Entity snapshots are taken on the threads owning the chunks, within the tick budget
+ * on Paper, deferred while the server is behind, then the filter and vehicle limits
+ * are evaluated on the worker pool.
+ * The resulting {@link ClearPlan} leaves only validation and removal for the clear itself.
+ */
+public class PreScan implements Runnable {
+
+    private final List<ClearTarget> targets;
+    private final List<Queue<EntitySnapshot>> snapshots = new ArrayList<>();
+    private final TaskScheduler scheduler;
+    private final Executor workers;
+    private final long budgetNanos;
+    private final long clearAtNanos;
+    private final TickMonitor monitor;
+    private final Logger logger;
+
+    // Cursor across targets and their chunks, only used on Paper
+    private int targetIndex = -1;
+    private long[] chunkKeys;
+    private int chunkIndex;
+
+    private TaskHandle handle;
+    private int deferred;
+    private volatile ClearPlan plan;
+    private volatile boolean cancelled;
+
+    public PreScan(List<ClearTarget> targets, TaskScheduler scheduler, Executor workers,
+                   long budgetNanos, long clearAtNanos, TickMonitor monitor, Logger logger) {
+        this.targets = List.copyOf(targets);
+        this.scheduler = scheduler;
+        this.workers = workers;
+        this.budgetNanos = budgetNanos;
+        this.clearAtNanos = clearAtNanos;
+        this.monitor = monitor;
+        this.logger = logger;
+
+        for (int i = 0; i < this.targets.size(); i++) {
+            snapshots.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Starts taking snapshots. On Folia every chunk is read by its own region,
+     * otherwise one slice runs every tick.
+     *
+     * @return this pre-scan
+     */
+    public PreScan start() {
+        if (!scheduler.isRegionized()) {
+            handle = scheduler.runTimer(this, 0L, 1L);
+            return this;
+        }
+
+        // Starts at one so planning can't begin before all chunks are scheduled
+        AtomicInteger pending = new AtomicInteger(1);
+        for (int i = 0; i < targets.size(); i++) {
+            int index = i;
+            World world = targets.get(i).world();
+            for (long chunkKey : targets.get(i).clearer().getChunkKeys(world)) {
+                pending.incrementAndGet();
+                scheduler.runAtChunk(world, ItemTracker.chunkX(chunkKey), ItemTracker.chunkZ(chunkKey), () -> {
+                    try {
+                        snapshotChunk(index, chunkKey);
+                    } finally {
+                        if (pending.decrementAndGet() == 0) {
+                            plan();
+                        }
+                    }
+                });
+            }
+        }
+        if (pending.decrementAndGet() == 0) {
+            plan();
+        }
+        return this;
+    }
+
+    @Override
+    public void run() {
+        // Yield to lagging ticks, the clear falls back to the filter if the plan isn't done in time
+        if (!cancelled && monitor != null && monitor.isBehind() && deferred < SweepTask.MAX_DEFERRED_TICKS) {
+            deferred++;
+            return;
+        }
+        deferred = 0;
+
+        long deadline = System.nanoTime() + budgetNanos;
+
+        while (System.nanoTime() < deadline) {
+            if (cancelled || !advance()) {
+                handle.cancel();
+                plan();
+                return;
+            }
+            snapshotChunk(targetIndex, chunkKeys[chunkIndex++]);
+        }
+    }
+
+    /**
+     * Moves the cursor to the next chunk that still has to be read.
+     *
+     * @return false if every target has been read
+     */
+    private boolean advance() {
+        while (chunkKeys == null || chunkIndex >= chunkKeys.length) {
+            if (++targetIndex >= targets.size()) {
+                return false;
+            }
+            ClearTarget target = targets.get(targetIndex);
+            chunkKeys = target.clearer().getChunkKeys(target.world());
+            chunkIndex = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Snapshots the entities of a chunk on the thread that owns it.
+     */
+    private void snapshotChunk(int index, long chunkKey) {
+        if (cancelled) {
+            return;
+        }
+
+        ClearTarget target = targets.get(index);
+        ClearFilter filter = target.clearer().getFilter();
+        int ageOffset = (int) Math.max(0, (clearAtNanos - System.nanoTime()) / TimingWheel.TICK_NANOS);
+        Queue<EntitySnapshot> queue = snapshots.get(index);
+
+        for (Entity entity : target.clearer().getEntities(target.world(), chunkKey)) {
+            if (!entity.isValid()) {
+                continue;
+            }
+            EntitySnapshot snapshot = filter.snapshot(entity, chunkKey, ageOffset);
+            if (snapshot != null) {
+                queue.add(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the snapshots of every world in parallel on the worker pool.
+     */
+    private void plan() {
+        if (cancelled) {
+            return;
+        }
+
+        List<CompletableFuture<ClearPlan.WorldPlan>> futures = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            int index = i;
+            futures.add(CompletableFuture.supplyAsync(() -> planWorld(index), workers));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.log(Level.WARNING, "Failed to plan clear, clearing without a plan", error);
+                return;
+            }
+
+            Map<UUID, ClearPlan.WorldPlan> worlds = new HashMap<>();
+            for (int i = 0; i < targets.size(); i++) {
+                worlds.put(targets.get(i).world().getUID(), futures.get(i).join());
+            }
+            plan = new ClearPlan(worlds);
+        });
+    }
+
+    /**
+     * Decides which scanned entities of a world are removed.
+     * Applies the same vehicle limits per chunk as a regular clear, in scan order.
+     */
+    private ClearPlan.WorldPlan planWorld(int index) {
+        ClearFilter filter = targets.get(index).clearer().getFilter();
+        Set<UUID> scanned = new HashSet<>();
+        Set<UUID> remove = new HashSet<>();
+        LongObjectMap<int[]> vehicles = new LongObjectMap<>();
+
+        for (EntitySnapshot snapshot : snapshots.get(index)) {
+            scanned.add(snapshot.id());
+            if (!filter.test(snapshot)) {
+                continue;
+            }
+
+            if (filter.isVehicle(snapshot.type())) {
+                int[] count = vehicles.computeIfAbsent(snapshot.chunkKey(), () -> new int[1]);
+                if (snapshot.ridden() || ++count[0] <= filter.getMaxVehiclesPerChunk()) {
+                    continue;
+                }
+            }
+            remove.add(snapshot.id());
+        }
+
+        return new ClearPlan.WorldPlan(scanned, remove);
+    }
+
+    /**
+     * Gets the finished plan.
+     *
+     * @return plan, or null if planning hasn't finished
+     */
+    public ClearPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Stops taking snapshots and drops the plan.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (handle != null) {
+            handle.cancel();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.metrics.ClearMetrics;
+import dev.nxms.worldclear.scheduler.TaskHandle;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Removes dropped items in parallel on Folia.
+ * Every chunk to clear is handled by the region that owns it,
+ * and the per-region counts are summed into one result on the global thread.
+ * With a removal cap, chunks are handed to their regions a tick at a time, each with a share of the cap
+ * as its removal limit: its indexed item count when only items are cleared, a fixed share otherwise.
+ * Chunks that reach their limit go back into the queue. Viewers can't be read from the global thread,
+ * so there's no per-viewer cap.
+ */
+public class RegionSweep {
+
+    // Chunks a tick's cap is split between when the removals of a chunk can't be estimated
+    private static final int SHARES_PER_TICK = 32;
+
+    private final List<ClearTarget> targets;
+    private final TaskScheduler scheduler;
+    private final int maxPerTick;
+    private final ClearMetrics metrics;
+    private final IntConsumer onComplete;
+
+    // Starts at one so the result can't be reported before all chunks are scheduled
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicInteger removed = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    // Only used on the global thread
+    private final Deque<QueuedChunk> queue = new ArrayDeque<>();
+    private final RemovalWindow window = new RemovalWindow();
+    private TaskHandle dispatchTask;
+    private int inFlight;
+    private int lastRemoved;
+
+    /**
+     * Creates a sweep that caps its removals per tick.
+     *
+     * @param targets worlds to sweep
+     * @param scheduler scheduler to run the chunks on their regions
+     * @param maxPerTick removals per tick, 0 to hand out every chunk at once
+     * @param metrics metrics to report the removal rate to, or null
+     * @param onComplete receives the number of items removed
+     */
+    public RegionSweep(List<ClearTarget> targets, TaskScheduler scheduler, int maxPerTick, ClearMetrics metrics,
+                       IntConsumer onComplete) {
+        this.targets = List.copyOf(targets);
+        this.scheduler = scheduler;
+        this.maxPerTick = maxPerTick;
+        this.metrics = metrics;
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Schedules the clear of every chunk on its owning region.
+     *
+     * @return handle to cancel the sweep
+     */
+    public TaskHandle start() {
+        for (ClearTarget target : targets) {
+            World world = target.world();
+            ChunkClearer clearer = target.clearer();
+            for (long chunkKey : clearer.getChunkKeys(world)) {
+                pending.incrementAndGet();
+                if (maxPerTick > 0) {
+                    queue.add(new QueuedChunk(world, clearer, chunkKey));
+                } else {
+                    dispatch(world, clearer, chunkKey);
+                }
+            }
+        }
+
+        if (maxPerTick > 0) {
+            dispatchTask = scheduler.runTimer(this::dispatchTick, 0L, 1L);
+        } else {
+            release();
+        }
+        return () -> {
+            cancelled = true;
+            if (dispatchTask != null) {
+                dispatchTask.cancel();
+            }
+            report(0, 0);
+        };
+    }
+
+    /**
+     * Hands out chunks until their removal limits use up this tick's cap.
+     * The limits add up to the cap at most, so no tick removes more than it allows.
+     */
+    private void dispatchTick() {
+        int budget = maxPerTick;
+        int share = Math.max(1, maxPerTick / SHARES_PER_TICK);
+        while (budget > 0 && !queue.isEmpty()) {
+            QueuedChunk chunk = queue.poll();
+            ChunkClearer clearer = chunk.clearer();
+            int estimate = clearer.getFilter().isItemsOnly()
+                    ? Math.max(1, clearer.getItemCount(chunk.world(), chunk.chunkKey()))
+                    : share;
+            int limit = Math.min(budget, estimate);
+            budget -= limit;
+            inFlight++;
+            dispatchLimited(chunk, limit);
+        }
+
+        int total = removed.get();
+        window.record(total - lastRemoved);
+        lastRemoved = total;
+        report(window.perSecond(), queue.size());
+
+        if (queue.isEmpty() && inFlight == 0) {
+            dispatchTask.cancel();
+            release();
+        }
+    }
+
+    /**
+     * Clears a chunk up to a limit on its region, then puts it back into the queue
+     * on the global thread if it reached the limit.
+     */
+    private void dispatchLimited(QueuedChunk chunk, int limit) {
+        World world = chunk.world();
+        long chunkKey = chunk.chunkKey();
+        scheduler.runAtChunk(world, ItemTracker.chunkX(chunkKey), ItemTracker.chunkZ(chunkKey), () -> {
+            int count = 0;
+            try {
+                if (!cancelled) {
+                    count = chunk.clearer().clearChunk(world, chunkKey,
+                            entity -> handOff(chunk.clearer(), entity), limit);
+                    removed.addAndGet(count);
+                }
+            } finally {
+                boolean more = count >= limit;
+                scheduler.runGlobal(() -> {
+                    inFlight--;
+                    if (more && !cancelled) {
+                        queue.add(chunk);
+                    } else {
+                        release();
+                    }
+                });
+            }
+        });
+    }
+
+    private void dispatch(World world, ChunkClearer clearer, long chunkKey) {
+        scheduler.runAtChunk(world, ItemTracker.chunkX(chunkKey), ItemTracker.chunkZ(chunkKey), () -> {
+            try {
+                sweepChunk(clearer, world, chunkKey);
+            } finally {
+                release();
+            }
+        });
+    }
+
+    /**
+     * Removes the matching entities of a chunk on the region thread that owns it.
+     * Items that moved into another region are handed to their own entity scheduler.
+     */
+    private void sweepChunk(ChunkClearer clearer, World world, long chunkKey) {
+        if (!cancelled) {
+            removed.addAndGet(clearer.clearChunk(world, chunkKey, entity -> handOff(clearer, entity)));
+        }
+    }
+
+    private void handOff(ChunkClearer clearer, Entity entity) {
+        pending.incrementAndGet();
+        scheduler.runForEntity(entity, () -> {
+            try {
+                if (!cancelled && clearer.clearEntity(entity)) {
+                    removed.incrementAndGet();
+                }
+            } finally {
+                release();
+            }
+        }, this::release);
+    }
+
+    /**
+     * Marks one scheduled task as done and reports the result after the last one.
+     */
+    private void release() {
+        if (pending.decrementAndGet() == 0 && !cancelled) {
+            scheduler.runGlobal(() -> {
+                report(0, 0);
+                onComplete.accept(removed.get());
+            });
+        }
+    }
+
+    private void report(long removalsPerSecond, long queuedChunks) {
+        if (metrics != null) {
+            metrics.recordRemovalRate(removalsPerSecond, queuedChunks);
+        }
+    }
+
+    /**
+     * Chunk waiting for its turn under the removal cap.
+     */
+    private record QueuedChunk(World world, ChunkClearer clearer, long chunkKey) {
+    }
+}
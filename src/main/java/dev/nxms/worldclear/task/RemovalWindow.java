@@ -0,0 +1,31 @@
+package dev.nxms.worldclear.task;
+
+/**
+ * Removals of the last second, counted per tick, for reporting the rate a sweep achieves.
+ */
+final class RemovalWindow {
+
+    private final int[] ticks = new int[20];
+    private int index;
+    private int sum;
+
+    /**
+     * Records the removals of a tick, replacing the tick a second ago.
+     *
+     * @param removed entities removed in the tick
+     */
+    void record(int removed) {
+        sum += removed - ticks[index];
+        ticks[index] = removed;
+        index = (index + 1) % ticks.length;
+    }
+
+    /**
+     * Gets the removals of the last twenty ticks.
+     *
+     * @return removals per second
+     */
+    int perSecond() {
+        return sum;
+    }
+}
@@ -0,0 +1,264 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.metrics.ClearMetrics;
+import dev.nxms.worldclear.scheduler.TaskHandle;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Task that removes dropped items spread over several ticks.
+ * Each run works through the chunks of the target worlds until the per-tick
+ * time budget is used up, then resumes from the same world and chunk on the next tick.
+ * Ticks the server is behind on are skipped, up to a limit so the sweep always progresses.
+ * Removals can be capped per tick and per player seeing them, since every removal sends a destroy
+ * packet to each viewer. With a cap, chunks nobody sees are cleared first and seen chunks after them.
+ */
+public class SweepTask implements Runnable {
+
+    // Consecutive ticks a slice may be deferred before it runs anyway
+    static final int MAX_DEFERRED_TICKS = 20;
+
+    private final List<ClearTarget> targets;
+    private final long budgetNanos;
+    private final TickMonitor monitor;
+    private final int maxPerTick;
+    private final int maxPerViewer;
+    private final ClearMetrics metrics;
+    private final IntConsumer onComplete;
+
+    // Cursor across worlds and their chunks
+    private long[][] worldKeys;
+    private int worldIndex;
+    private World world;
+    private ChunkClearer clearer;
+    private long[] chunkKeys;
+    private int chunkIndex;
+    private int queued;
+
+    // Seen chunks held back until the unseen ones are done
+    private final Deque<SeenChunk> seen = new ArrayDeque<>();
+    private final Map<Player, Integer> viewerRemovals = new HashMap<>();
+    private final RemovalWindow window = new RemovalWindow();
+
+    private TaskHandle handle;
+    private int deferred;
+    private int removed;
+    private boolean finished;
+
+    /**
+     * Creates a sweep that yields to lagging ticks and caps its removals.
+     *
+     * @param targets worlds to sweep
+     * @param budgetNanos time a slice may take per tick
+     * @param monitor tick monitor to defer slices with, or null to run every tick
+     * @param maxPerTick removals per tick, 0 for no limit
+     * @param maxPerViewer removals per tick a single player sees, 0 for no limit
+     * @param metrics metrics to report the removal rate to, or null
+     * @param onComplete receives the number of items removed
+     */
+    public SweepTask(List<ClearTarget> targets, long budgetNanos, TickMonitor monitor, int maxPerTick,
+                     int maxPerViewer, ClearMetrics metrics, IntConsumer onComplete) {
+        this.targets = List.copyOf(targets);
+        this.budgetNanos = budgetNanos;
+        this.monitor = monitor;
+        this.maxPerTick = maxPerTick;
+        this.maxPerViewer = maxPerViewer;
+        this.metrics = metrics;
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Starts the sweep, running one slice every tick.
+     *
+     * @param scheduler scheduler to run the slices on
+     * @return handle to cancel the sweep
+     */
+    public TaskHandle start(TaskScheduler scheduler) {
+        handle = scheduler.runTimer(this, 0L, 1L);
+        return () -> {
+            handle.cancel();
+            if (metrics != null) {
+                metrics.recordRemovalRate(0, 0);
+            }
+        };
+    }
+
+    @Override
+    public void run() {
+        if (worldKeys == null) {
+            collectChunks();
+        }
+
+        if (monitor != null && monitor.isBehind() && deferred < MAX_DEFERRED_TICKS) {
+            deferred++;
+            report(0);
+            return;
+        }
+        deferred = 0;
+
+        long deadline = System.nanoTime() + budgetNanos;
+        int limit = maxPerTick > 0 ? maxPerTick : Integer.MAX_VALUE;
+        boolean limited = maxPerTick > 0 || maxPerViewer > 0;
+        int tickRemoved = 0;
+        viewerRemovals.clear();
+
+        // Unseen chunks first
+        boolean cursorDone = false;
+        while (tickRemoved < limit && System.nanoTime() < deadline) {
+            if (!advance()) {
+                cursorDone = true;
+                break;
+            }
+
+            long chunkKey = chunkKeys[chunkIndex];
+            if (limited) {
+                Collection<Player> viewers = getViewers(world, chunkKey);
+                if (!viewers.isEmpty()) {
+                    seen.add(new SeenChunk(world, clearer, chunkKey));
+                    chunkIndex++;
+                    continue;
+                }
+            }
+
+            int allowed = limit - tickRemoved;
+            int count = clearer.clearChunk(world, chunkKey, null, allowed);
+            tickRemoved += count;
+            if (count < allowed) {
+                chunkIndex++;
+                queued--;
+            }
+        }
+
+        // Then seen chunks, as far as the caps of their viewers allow
+        if (cursorDone) {
+            for (int attempts = seen.size(); attempts > 0 && !seen.isEmpty(); attempts--) {
+                if (tickRemoved >= limit || System.nanoTime() >= deadline) {
+                    break;
+                }
+                SeenChunk chunk = seen.poll();
+                Collection<Player> viewers = getViewers(chunk.world(), chunk.chunkKey());
+                int allowed = getAllowed(viewers, limit - tickRemoved);
+                if (allowed <= 0) {
+                    seen.add(chunk);
+                    continue;
+                }
+
+                int count = chunk.clearer().clearChunk(chunk.world(), chunk.chunkKey(), null, allowed);
+                tickRemoved += count;
+                for (Player viewer : viewers) {
+                    viewerRemovals.merge(viewer, count, Integer::sum);
+                }
+                if (count < allowed) {
+                    queued--;
+                } else {
+                    seen.add(chunk);
+                }
+            }
+        }
+
+        removed += tickRemoved;
+        report(tickRemoved);
+        if (cursorDone && seen.isEmpty()) {
+            finish();
+        }
+    }
+
+    /**
+     * Takes the chunk keys of every world at the start, so the queue depth is known.
+     */
+    private void collectChunks() {
+        worldKeys = new long[targets.size()][];
+        for (int i = 0; i < targets.size(); i++) {
+            ClearTarget target = targets.get(i);
+            worldKeys[i] = target.clearer().getChunkKeys(target.world());
+            queued += worldKeys[i].length;
+        }
+    }
+
+    /**
+     * Moves the cursor to the next chunk that still has to be swept.
+     *
+     * @return false if every world has been swept
+     */
+    private boolean advance() {
+        while (chunkKeys == null || chunkIndex >= chunkKeys.length) {
+            if (worldIndex >= targets.size()) {
+                return false;
+            }
+            ClearTarget target = targets.get(worldIndex);
+            world = target.world();
+            clearer = target.clearer();
+            chunkKeys = worldKeys[worldIndex++];
+            chunkIndex = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Gets how many entities may be removed from a chunk without exceeding the cap of any viewer.
+     */
+    private int getAllowed(Collection<Player> viewers, int allowed) {
+        if (maxPerViewer > 0) {
+            for (Player viewer : viewers) {
+                allowed = Math.min(allowed, maxPerViewer - viewerRemovals.getOrDefault(viewer, 0));
+            }
+        }
+        return allowed;
+    }
+
+    private static Collection<Player> getViewers(World world, long chunkKey) {
+        int chunkX = ItemTracker.chunkX(chunkKey);
+        int chunkZ = ItemTracker.chunkZ(chunkKey);
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return List.of();
+        }
+        return world.getChunkAt(chunkX, chunkZ).getPlayersSeeingChunk();
+    }
+
+    private void report(int tickRemoved) {
+        window.record(tickRemoved);
+        if (metrics != null) {
+            metrics.recordRemovalRate(window.perSecond(), Math.max(0, queued));
+        }
+    }
+
+    /**
+     * Stops the sweep and reports the final count.
+     */
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        handle.cancel();
+        if (metrics != null) {
+            metrics.recordRemovalRate(0, 0);
+        }
+        onComplete.accept(removed);
+    }
+
+    /**
+     * Gets the number of items removed so far.
+     *
+     * @return removed item count
+     */
+    public int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Chunk held back because players can see it.
+     */
+    private record SeenChunk(World world, ChunkClearer clearer, long chunkKey) {
+    }
+}
@@ -0,0 +1,108 @@
+package dev.nxms.worldclear.task;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.manager.ClearManager;
+import dev.nxms.worldclear.manager.ConfigManager;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Watches tick times through Paper's tick end event and keeps a rolling average.
+ * Slice work that isn't urgent is deferred while the server is behind, and an
+ * emergency clear with a short countdown starts when items and tick time both pass their limits.
+ * Folia has no global tick to watch, there the server's own average is sampled instead.
+ */
+public class TickMonitor implements Listener, Runnable {
+
+    // Number of ticks the rolling average covers
+    private static final int WINDOW = 100;
+
+    private final WorldClear plugin;
+    private final double[] durations = new double[WINDOW];
+    private int index;
+    private int count;
+    private double sum;
+    private long lastEmergency;
+
+    private volatile double mspt;
+    private volatile boolean behind;
+    private volatile boolean ticking;
+
+    public TickMonitor(WorldClear plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        double duration = event.getTickDuration();
+        sum += duration - durations[index];
+        durations[index] = duration;
+        index = (index + 1) % WINDOW;
+        count = Math.min(WINDOW, count + 1);
+
+        mspt = sum / count;
+        ticking = true;
+
+        // A negative remaining time means the server is running late and catching up
+        double deferMspt = plugin.getConfigManager().getDeferMspt();
+        behind = deferMspt > 0 && (event.getTimeRemaining() < 0 || mspt > deferMspt);
+    }
+
+    /**
+     * Checks for an item flood on a lagging server, once a second.
+     */
+    @Override
+    public void run() {
+        ConfigManager config = plugin.getConfigManager();
+        if (!ticking) {
+            mspt = Bukkit.getAverageTickTime();
+            behind = config.getDeferMspt() > 0 && mspt > config.getDeferMspt();
+        }
+
+        if (!config.isEmergencyEnabled()) {
+            return;
+        }
+
+        int items = plugin.getItemTracker().getItemCount();
+        double current = mspt;
+        if (items < config.getEmergencyMaxItems() || current < config.getEmergencyMinMspt()) {
+            return;
+        }
+
+        ClearManager clearManager = plugin.getClearManager();
+        if (clearManager.isSweepRunning() || clearManager.isEmergencyRunning()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastEmergency < config.getEmergencyCooldownSeconds() * 1000L) {
+            return;
+        }
+
+        lastEmergency = now;
+        plugin.getLogger().warning(String.format(
+                "Item flood on a lagging server (%d items, %.1f mspt). Starting emergency clear.", items, current));
+        clearManager.startEmergencyClear();
+    }
+
+    /**
+     * Gets the average tick time of the last few seconds.
+     *
+     * @return milliseconds per tick
+     */
+    public double getMspt() {
+        return mspt;
+    }
+
+    /**
+     * Checks if work that can wait should skip the current tick.
+     *
+     * @return true while the server is behind or above the deferral tick time
+     */
+    public boolean isBehind() {
+        return behind;
+    }
+}
@@ -0,0 +1,189 @@
+package dev.nxms.worldclear.task;
+
+import dev.nxms.worldclear.WorldClear;
+import dev.nxms.worldclear.scheduler.TaskHandle;
+import dev.nxms.worldclear.scheduler.TaskScheduler;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Task for the trickle clear mode. A cursor walks the chunks holding dropped items,
+ * a few per tick, and removes items past the age limit as well as the oldest items
+ * beyond the per-chunk limit. Keeps the cost per tick flat, without countdowns.
+ * The worlds to walk are resolved once and again only after a world loads or unloads.
+ */
+public class TrickleTask implements Runnable, Listener {
+
+    // Ticks to wait after a pass that found no chunks with items
+    private static final int IDLE_TICKS = 20;
+
+    private final WorldClear plugin;
+    private final Supplier<List<ClearTarget>> targetSupplier;
+    private final int chunksPerTick;
+    private final int maxAgeTicks;
+    private final int maxItemsPerChunk;
+    private final AtomicInteger removed = new AtomicInteger();
+
+    private TaskHandle handle;
+    private volatile boolean targetsStale = true;
+    private int idle;
+    private int visited;
+
+    // Cursor across worlds and their chunks, restarted every pass
+    private List<ClearTarget> targets = List.of();
+    private int targetIndex;
+    private ClearTarget target;
+    private long[] chunkKeys;
+    private int chunkIndex;
+    private int deferred;
+
+    public TrickleTask(WorldClear plugin, Supplier<List<ClearTarget>> targetSupplier,
+                       int chunksPerTick, int maxAgeTicks, int maxItemsPerChunk) {
+        this.plugin = plugin;
+        this.targetSupplier = targetSupplier;
+        this.chunksPerTick = chunksPerTick;
+        this.maxAgeTicks = maxAgeTicks;
+        this.maxItemsPerChunk = maxItemsPerChunk;
+    }
+
+    /**
+     * Starts walking the chunks every tick.
+     */
+    public void start() {
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        handle = plugin.getTaskScheduler().runTimer(this, 1L, 1L);
+    }
+
+    /**
+     * Stops the task.
+     */
+    public void stop() {
+        if (handle != null) {
+            handle.cancel();
+            handle = null;
+        }
+        HandlerList.unregisterAll(this);
+    }
+
+    @Override
+    public void run() {
+        if (idle > 0) {
+            idle--;
+            return;
+        }
+
+        TickMonitor monitor = plugin.getTickMonitor();
+        if (monitor != null && monitor.isBehind() && deferred < SweepTask.MAX_DEFERRED_TICKS) {
+            deferred++;
+            return;
+        }
+        deferred = 0;
+
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        for (int i = 0; i < chunksPerTick; i++) {
+            if (!advance()) {
+                finishPass();
+                return;
+            }
+
+            ClearTarget current = target;
+            long chunkKey = chunkKeys[chunkIndex++];
+            visited++;
+            if (scheduler.isRegionized()) {
+                scheduler.runAtChunk(current.world(), ItemTracker.chunkX(chunkKey), ItemTracker.chunkZ(chunkKey),
+                        () -> trimChunk(current, chunkKey));
+            } else {
+                trimChunk(current, chunkKey);
+            }
+        }
+    }
+
+    /**
+     * Moves the cursor to the next chunk holding items.
+     *
+     * @return false if the pass over all worlds is done
+     */
+    private boolean advance() {
+        while (chunkKeys == null || chunkIndex >= chunkKeys.length) {
+            if (targetIndex >= targets.size()) {
+                return false;
+            }
+            target = targets.get(targetIndex++);
+            chunkKeys = target.clearer().getFilter().allowsWorld(target.world())
+                    ? plugin.getItemTracker().getChunkKeys(target.world())
+                    : new long[0];
+            chunkIndex = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Starts the next pass, after a short pause if there was nothing to walk.
+     */
+    private void finishPass() {
+        int count = removed.getAndSet(0);
+        if (count > 0) {
+            plugin.getLostAndFound().flush();
+        }
+        if (visited == 0) {
+            idle = IDLE_TICKS;
+        }
+        visited = 0;
+
+        if (targetsStale) {
+            targetsStale = false;
+            targets = targetSupplier.get();
+        }
+        targetIndex = 0;
+        target = null;
+        chunkKeys = null;
+    }
+
+    /**
+     * Removes the items of a chunk that are too old or exceed the chunk limit, if there is one, oldest first.
+     * Items that drifted into another chunk are moved there in the index and not counted here.
+     */
+    private void trimChunk(ClearTarget current, long chunkKey) {
+        ItemTracker tracker = plugin.getItemTracker();
+        Item[] items = Arrays.stream(tracker.getItems(current.world(), chunkKey))
+                .filter(item -> item.isValid() && Bukkit.isOwnedByCurrentRegion(item))
+                .filter(item -> tracker.relocate(item, chunkKey))
+                .sorted(Comparator.comparingInt(Item::getTicksLived).reversed())
+                .toArray(Item[]::new);
+
+        int excess = maxItemsPerChunk > 0 ? items.length - maxItemsPerChunk : 0;
+        for (Item item : items) {
+            if (excess <= 0 && item.getTicksLived() < maxAgeTicks) {
+                // Sorted by age, every following item is younger
+                break;
+            }
+            if (current.clearer().clearEntity(item)) {
+                removed.incrementAndGet();
+                excess--;
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        targetsStale = true;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        targetsStale = true;
+    }
+}
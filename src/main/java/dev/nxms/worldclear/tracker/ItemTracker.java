@@ -0,0 +1,317 @@
+package dev.nxms.worldclear.tracker;
+
+import dev.nxms.worldclear.util.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index of live dropped items keyed by world and packed chunk coordinate.
+ * Also remembers which chunks have their entities loaded, so clears of other
+ * entity types don't need to ask the world for its loaded chunks.
+ * Kept up to date by {@link ItemTrackerListener} so clears only touch actual items.
+ * Access is synchronized since Folia fires item events on several region threads.
+ */
+public class ItemTracker {
+
+    private final Map<UUID, WorldIndex> worlds = new HashMap<>();
+    private int itemCount;
+
+    /**
+     * Rebuilds the index from all currently loaded chunks.
+     */
+    public synchronized void rebuild() {
+        worlds.clear();
+        itemCount = 0;
+
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                if (chunk.isEntitiesLoaded()) {
+                    reconcile(chunk, Arrays.asList(chunk.getEntities()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an item to the index, or moves it if it changed chunks.
+     *
+     * @param item item to track
+     */
+    public synchronized void track(Item item) {
+        WorldIndex index = worlds.computeIfAbsent(item.getWorld().getUID(), id -> new WorldIndex());
+        long key = chunkKey(item.getLocation());
+
+        Long previous = index.keys.put(item.getUniqueId(), key);
+        if (previous != null) {
+            if (previous == key) {
+                return;
+            }
+            removeFromBucket(index, previous, item.getUniqueId());
+        } else {
+            itemCount++;
+        }
+
+        index.chunks.computeIfAbsent(key, LinkedHashMap::new).put(item.getUniqueId(), item);
+    }
+
+    /**
+     * Moves an item to the bucket of the chunk it is in now, if it moved since it was indexed.
+     * Items carried by water or pushed around stay under their spawn chunk until this is called.
+     *
+     * @param item tracked item
+     * @param chunkKey packed key of the chunk the item was found under
+     * @return true if the item is still in that chunk
+     */
+    public boolean relocate(Item item, long chunkKey) {
+        if (chunkKey(item.getLocation()) == chunkKey) {
+            return true;
+        }
+        track(item);
+        return false;
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @param item item to forget
+     */
+    public synchronized void untrack(Item item) {
+        WorldIndex index = worlds.get(item.getWorld().getUID());
+        if (index == null) {
+            return;
+        }
+
+        Long key = index.keys.remove(item.getUniqueId());
+        if (key != null) {
+            removeFromBucket(index, key, item.getUniqueId());
+            itemCount--;
+        }
+    }
+
+    /**
+     * Replaces the tracked items of a chunk with the chunk's actual entity list.
+     * Called when chunk entities load so the index can't drift over time.
+     * Items indexed under the chunk that are alive elsewhere are moved to the chunk they are in.
+     *
+     * @param chunk chunk whose entities were loaded
+     * @param entities entities currently in the chunk
+     */
+    public synchronized void reconcile(Chunk chunk, Collection<? extends Entity> entities) {
+        WorldIndex index = worlds.computeIfAbsent(chunk.getWorld().getUID(), id -> new WorldIndex());
+        long key = chunkKey(chunk.getX(), chunk.getZ());
+        index.loaded.put(key, Boolean.TRUE);
+
+        Map<UUID, Item> bucket = index.chunks.remove(key);
+        if (bucket != null) {
+            for (UUID id : bucket.keySet()) {
+                index.keys.remove(id);
+            }
+            itemCount -= bucket.size();
+
+            for (Item item : bucket.values()) {
+                if (item.isValid() && chunkKey(item.getLocation()) != key) {
+                    track(item);
+                }
+            }
+        }
+
+        for (Entity entity : entities) {
+            if (entity instanceof Item item && item.isValid()) {
+                track(item);
+            }
+        }
+    }
+
+    /**
+     * Removes the given chunk entities from the index.
+     *
+     * @param chunk chunk whose entities are being unloaded
+     * @param entities entities that are being unloaded
+     */
+    public synchronized void unload(Chunk chunk, Collection<? extends Entity> entities) {
+        WorldIndex index = worlds.get(chunk.getWorld().getUID());
+        if (index != null) {
+            index.loaded.remove(chunkKey(chunk.getX(), chunk.getZ()));
+        }
+
+        for (Entity entity : entities) {
+            if (entity instanceof Item item) {
+                untrack(item);
+            }
+        }
+    }
+
+    /**
+     * Drops every tracked item of a world.
+     *
+     * @param world world being unloaded
+     */
+    public synchronized void unloadWorld(World world) {
+        WorldIndex index = worlds.remove(world.getUID());
+        if (index != null) {
+            itemCount -= index.keys.size();
+        }
+    }
+
+    /**
+     * Gets the keys of all chunks that hold tracked items in a world.
+     *
+     * @param world world to query
+     * @return packed chunk keys
+     */
+    public synchronized long[] getChunkKeys(World world) {
+        WorldIndex index = worlds.get(world.getUID());
+        return index == null ? new long[0] : index.chunks.keys();
+    }
+
+    /**
+     * Gets the keys of all chunks whose entities are loaded in a world.
+     *
+     * @param world world to query
+     * @return packed chunk keys
+     */
+    public synchronized long[] getLoadedChunkKeys(World world) {
+        WorldIndex index = worlds.get(world.getUID());
+        return index == null ? new long[0] : index.loaded.keys();
+    }
+
+    /**
+     * Checks if the entities of a chunk are loaded.
+     *
+     * @param world world of the chunk
+     * @param chunkKey packed chunk key
+     * @return true if the chunk's entities are loaded
+     */
+    public synchronized boolean isLoaded(World world, long chunkKey) {
+        WorldIndex index = worlds.get(world.getUID());
+        return index != null && index.loaded.get(chunkKey) != null;
+    }
+
+    /**
+     * Gets a snapshot of the items tracked in a chunk.
+     *
+     * @param world world of the chunk
+     * @param chunkKey packed chunk key
+     * @return tracked items, possibly including ones that became invalid
+     */
+    public synchronized Item[] getItems(World world, long chunkKey) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return new Item[0];
+        }
+
+        Map<UUID, Item> bucket = index.chunks.get(chunkKey);
+        return bucket == null ? new Item[0] : bucket.values().toArray(new Item[0]);
+    }
+
+    /**
+     * Gets the number of items tracked in a chunk.
+     *
+     * @param world world of the chunk
+     * @param chunkKey packed chunk key
+     * @return tracked item count
+     */
+    public synchronized int getItemCount(World world, long chunkKey) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return 0;
+        }
+
+        Map<UUID, Item> bucket = index.chunks.get(chunkKey);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    /**
+     * Gets the number of items tracked in a world.
+     *
+     * @param world world to query
+     * @return tracked item count
+     */
+    public synchronized int getItemCount(World world) {
+        WorldIndex index = worlds.get(world.getUID());
+        return index == null ? 0 : index.keys.size();
+    }
+
+    /**
+     * Gets the number of items tracked across all worlds.
+     *
+     * @return tracked item count
+     */
+    public synchronized int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Gets the item count of the chunk holding the most tracked items.
+     *
+     * @return highest per-chunk item count
+     */
+    public synchronized int getDensestChunkCount() {
+        int densest = 0;
+        for (WorldIndex index : worlds.values()) {
+            int[] max = {densest};
+            index.chunks.forEach((key, bucket) -> max[0] = Math.max(max[0], bucket.size()));
+            densest = max[0];
+        }
+        return densest;
+    }
+
+    private void removeFromBucket(WorldIndex index, long key, UUID id) {
+        Map<UUID, Item> bucket = index.chunks.get(key);
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                index.chunks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Packs chunk coordinates into a single long.
+     *
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return packed chunk key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkZ << 32) | (chunkX & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs the chunk coordinates of a location into a single long.
+     *
+     * @param location location inside the chunk
+     * @return packed chunk key
+     */
+    public static long chunkKey(Location location) {
+        return chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    public static int chunkX(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    public static int chunkZ(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    /**
+     * Tracked items of a single world.
+     */
+    private static final class WorldIndex {
+        private final LongObjectMap<Map<UUID, Item>> chunks = new LongObjectMap<>();
+        private final Map<UUID, Long> keys = new HashMap<>();
+        private final LongObjectMap<Boolean> loaded = new LongObjectMap<>();
+    }
+}
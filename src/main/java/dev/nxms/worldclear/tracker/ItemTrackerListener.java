@@ -0,0 +1,75 @@
+package dev.nxms.worldclear.tracker;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.entity.ItemMergeEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the {@link ItemTracker} in sync with item spawns, removals and chunk entity loading.
+ */
+public class ItemTrackerListener implements Listener {
+
+    private final ItemTracker tracker;
+
+    public ItemTrackerListener(ItemTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemSpawn(ItemSpawnEvent event) {
+        tracker.track(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemDespawn(ItemDespawnEvent event) {
+        tracker.untrack(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemMerge(ItemMergeEvent event) {
+        // The merged item is removed, the target keeps existing
+        tracker.untrack(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemPickup(EntityPickupItemEvent event) {
+        // Partial pickups leave the item on the ground
+        if (event.getRemaining() <= 0) {
+            tracker.untrack(event.getItem());
+        }
+    }
+
+    /**
+     * Catches removals without a dedicated event, such as hoppers, commands or the void.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof Item item) {
+            tracker.untrack(item);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        tracker.reconcile(event.getChunk(), event.getEntities());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        tracker.unload(event.getChunk(), event.getEntities());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        tracker.unloadWorld(event.getWorld());
+    }
+}
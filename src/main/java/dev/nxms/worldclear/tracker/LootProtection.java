@@ -0,0 +1,155 @@
+package dev.nxms.worldclear.tracker;
+
+import dev.nxms.worldclear.util.UuidExpirySet;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Index of dropped items that clears leave alone for a grace period:
+ * death drops and items thrown by players.
+ * Lookups are a single hash probe, entries leave the index when the item is
+ * picked up or removed, and expired entries are cleaned up a few slots at a time.
+ * Access is synchronized since Folia fires item events on several region threads.
+ */
+public class LootProtection {
+
+    // Death drops spawn around the player within this distance
+    private static final double DEATH_DROP_RADIUS_SQUARED = 3.0 * 3.0;
+
+    private final UuidExpirySet items = new UuidExpirySet();
+    private final List<Death> deaths = new ArrayList<>();
+    private long deathGraceNanos;
+    private long throwGraceNanos;
+
+    /**
+     * Sets how long items stay protected.
+     *
+     * @param deathGraceSeconds grace period of death drops, 0 to not protect them
+     * @param throwGraceSeconds grace period of thrown items, 0 to not protect them
+     */
+    public synchronized void configure(long deathGraceSeconds, long throwGraceSeconds) {
+        this.deathGraceNanos = Math.max(0, deathGraceSeconds) * 1_000_000_000L;
+        this.throwGraceNanos = Math.max(0, throwGraceSeconds) * 1_000_000_000L;
+        if (deathGraceNanos == 0 && throwGraceNanos == 0) {
+            items.clear();
+            deaths.clear();
+        }
+    }
+
+    /**
+     * Remembers where a player died, so the drops spawned there in the same tick are protected.
+     *
+     * @param location death location
+     * @param tick current server tick
+     */
+    public synchronized void recordDeath(Location location, int tick) {
+        if (deathGraceNanos == 0) {
+            return;
+        }
+        deaths.removeIf(death -> death.tick != tick);
+        deaths.add(new Death(location.getWorld().getUID(), location.getX(), location.getY(), location.getZ(), tick));
+    }
+
+    /**
+     * Protects a spawned item if it lies next to a death from the same tick.
+     *
+     * @param item spawned item
+     * @param tick current server tick
+     */
+    public synchronized void onSpawn(Item item, int tick) {
+        if (deaths.isEmpty()) {
+            return;
+        }
+
+        Location location = item.getLocation();
+        World world = location.getWorld();
+        for (Death death : deaths) {
+            if (death.tick != tick || !death.world.equals(world.getUID())) {
+                continue;
+            }
+            double dx = death.x - location.getX();
+            double dy = death.y - location.getY();
+            double dz = death.z - location.getZ();
+            if (dx * dx + dy * dy + dz * dz <= DEATH_DROP_RADIUS_SQUARED) {
+                items.add(item.getUniqueId(), System.nanoTime() + deathGraceNanos);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Protects an item a player dropped.
+     *
+     * @param item dropped item
+     */
+    public synchronized void onThrow(Item item) {
+        if (throwGraceNanos > 0) {
+            items.add(item.getUniqueId(), System.nanoTime() + throwGraceNanos);
+        }
+    }
+
+    /**
+     * Carries the protection of a merged item over to the stack it merged into.
+     *
+     * @param source item that is merged away
+     * @param target item that remains
+     */
+    public synchronized void onMerge(Item source, Item target) {
+        long deadline = items.getDeadline(source.getUniqueId(), Long.MIN_VALUE);
+        if (deadline == Long.MIN_VALUE) {
+            return;
+        }
+        items.remove(source.getUniqueId());
+        // Deadlines are compared by difference, the absent marker has to be checked on its own
+        long targetDeadline = items.getDeadline(target.getUniqueId(), Long.MIN_VALUE);
+        if (targetDeadline == Long.MIN_VALUE || targetDeadline - deadline < 0) {
+            items.add(target.getUniqueId(), deadline);
+        }
+    }
+
+    /**
+     * Forgets an item that was picked up or removed.
+     *
+     * @param id item id
+     */
+    public synchronized void forget(UUID id) {
+        items.remove(id);
+    }
+
+    /**
+     * Checks if an item is protected from clears.
+     *
+     * @param id item id
+     * @return true while the item's grace period lasts
+     */
+    public synchronized boolean isProtected(UUID id) {
+        return !items.isEmpty() && items.contains(id, System.nanoTime());
+    }
+
+    /**
+     * Removes expired entries from the next part of the index.
+     *
+     * @param maxSlots number of slots to look at
+     * @return number of entries removed
+     */
+    public synchronized int cleanup(int maxSlots) {
+        return items.removeExpired(System.nanoTime(), maxSlots);
+    }
+
+    /**
+     * Gets the number of protected items, including expired ones not cleaned up yet.
+     *
+     * @return index size
+     */
+    public synchronized int size() {
+        return items.size();
+    }
+
+    private record Death(UUID world, double x, double y, double z, int tick) {
+    }
+}
@@ -0,0 +1,74 @@
+package dev.nxms.worldclear.tracker;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.entity.ItemMergeEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+
+/**
+ * Feeds death drops and thrown items into the {@link LootProtection} index
+ * and removes them again once they are gone.
+ */
+public class LootProtectionListener implements Listener {
+
+    private final LootProtection protection;
+
+    public LootProtectionListener(LootProtection protection) {
+        this.protection = protection;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        // Drops are spawned right after the event, in the same tick
+        if (!event.getKeepInventory() && !event.getDrops().isEmpty()) {
+            protection.recordDeath(event.getEntity().getLocation(), Bukkit.getCurrentTick());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemSpawn(ItemSpawnEvent event) {
+        protection.onSpawn(event.getEntity(), Bukkit.getCurrentTick());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerDrop(PlayerDropItemEvent event) {
+        protection.onThrow(event.getItemDrop());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemMerge(ItemMergeEvent event) {
+        protection.onMerge(event.getEntity(), event.getTarget());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemDespawn(ItemDespawnEvent event) {
+        protection.forget(event.getEntity().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemPickup(EntityPickupItemEvent event) {
+        if (event.getRemaining() <= 0) {
+            protection.forget(event.getItem().getUniqueId());
+        }
+    }
+
+    /**
+     * Forgets items that are gone for good. Items saved with an unloading chunk keep their protection,
+     * so loot is still protected when its owner comes back, entries past their deadline expire anyway.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof Item item && event.getCause() != EntityRemoveEvent.Cause.UNLOAD) {
+            protection.forget(item.getUniqueId());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package dev.nxms.worldclear.util;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Open addressing hash map with primitive long keys.
+ * Used for chunk-keyed lookups without boxing the packed chunk coordinates.
+ *
+ * @param <V> value type
+ */
+public class LongObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeAt;
+
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value stored for a key.
+     *
+     * @param key key to look up
+     * @return stored value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Gets the value stored for a key, creating it if absent.
+     *
+     * @param key key to look up
+     * @param factory creates the value if the key is absent
+     * @return stored or created value
+     */
+    public V computeIfAbsent(long key, Supplier<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.get();
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value for a key.
+     *
+     * @param key key to store
+     * @param value value to store, must not be null
+     * @return previous value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value stored for a key.
+     *
+     * @param key key to remove
+     * @return removed value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        V previous = (V) values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    /**
+     * Gets all keys currently stored.
+     *
+     * @return snapshot of stored keys
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int index = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                result[index++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Iterates over all stored entries.
+     *
+     * @param consumer receives each key and value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<V> consumer) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Closes the gap left by a removed entry so lookups need no tombstones.
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int slot = gap;
+
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+
+            int home = mix(keys[slot]) & mask;
+            // Move the entry back if the gap lies between its home slot and current slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Receives map entries without boxing the key.
+     *
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
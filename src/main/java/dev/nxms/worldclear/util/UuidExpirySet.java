@@ -0,0 +1,217 @@
+package dev.nxms.worldclear.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing hash set of UUIDs that each expire at a deadline.
+ * UUIDs are stored as two longs, so adding and looking up entries doesn't allocate.
+ * Expired entries are removed on lookup, or a few slots at a time by {@link #removeExpired}.
+ */
+public class UuidExpirySet {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    // Marks a free slot, a real deadline never takes this value
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] most;
+    private long[] least;
+    private long[] deadlines;
+    private int size;
+    private int resizeAt;
+    private int cursor;
+
+    public UuidExpirySet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Adds a UUID, or moves its deadline if it is already present.
+     *
+     * @param id UUID to add
+     * @param deadline {@link System#nanoTime()} value the entry expires at
+     */
+    public void add(UUID id, long deadline) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        int mask = deadlines.length - 1;
+        int slot = mix(high, low) & mask;
+
+        while (deadlines[slot] != EMPTY) {
+            if (most[slot] == high && least[slot] == low) {
+                deadlines[slot] = deadline;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        most[slot] = high;
+        least[slot] = low;
+        deadlines[slot] = deadline;
+        if (++size >= resizeAt) {
+            rehash(deadlines.length << 1);
+        }
+    }
+
+    /**
+     * Checks if a UUID is present and not expired. An expired entry is removed.
+     *
+     * @param id UUID to look up
+     * @param now current {@link System#nanoTime()} value
+     * @return true if the UUID is present and its deadline lies ahead
+     */
+    public boolean contains(UUID id, long now) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return false;
+        }
+        if (deadlines[slot] - now <= 0) {
+            shiftBack(slot);
+            size--;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the deadline of a UUID.
+     *
+     * @param id UUID to look up
+     * @param absent value returned if the UUID isn't present
+     * @return {@link System#nanoTime()} value the entry expires at
+     */
+    public long getDeadline(UUID id, long absent) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return slot < 0 ? absent : deadlines[slot];
+    }
+
+    /**
+     * Removes a UUID.
+     *
+     * @param id UUID to remove
+     * @return true if the UUID was present
+     */
+    public boolean remove(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return false;
+        }
+        shiftBack(slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes expired entries from the next few slots, continuing where the last call stopped.
+     *
+     * @param now current {@link System#nanoTime()} value
+     * @param maxSlots number of slots to look at
+     * @return number of entries removed
+     */
+    public int removeExpired(long now, int maxSlots) {
+        int mask = deadlines.length - 1;
+        int removed = 0;
+
+        for (int i = 0; i < maxSlots && size > 0; i++) {
+            int slot = cursor & mask;
+            if (deadlines[slot] != EMPTY && deadlines[slot] - now <= 0) {
+                // Entries shifted into the freed slot are checked on the next step
+                shiftBack(slot);
+                size--;
+                removed++;
+            } else {
+                cursor = (slot + 1) & mask;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(deadlines, EMPTY);
+        size = 0;
+        cursor = 0;
+    }
+
+    private int find(long high, long low) {
+        int mask = deadlines.length - 1;
+        int slot = mix(high, low) & mask;
+
+        while (deadlines[slot] != EMPTY) {
+            if (most[slot] == high && least[slot] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Closes the gap left by a removed entry so lookups need no tombstones.
+     */
+    private void shiftBack(int gap) {
+        int mask = deadlines.length - 1;
+        int slot = gap;
+
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (deadlines[slot] == EMPTY) {
+                break;
+            }
+
+            int home = mix(most[slot], least[slot]) & mask;
+            // Move the entry back if the gap lies between its home slot and current slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                most[gap] = most[slot];
+                least[gap] = least[slot];
+                deadlines[gap] = deadlines[slot];
+                gap = slot;
+            }
+        }
+
+        deadlines[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        long[] oldDeadlines = deadlines;
+        allocate(capacity);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldDeadlines.length; i++) {
+            if (oldDeadlines[i] != EMPTY) {
+                int slot = mix(oldMost[i], oldLeast[i]) & mask;
+                while (deadlines[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                most[slot] = oldMost[i];
+                least[slot] = oldLeast[i];
+                deadlines[slot] = oldDeadlines[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.most = new long[capacity];
+        this.least = new long[capacity];
+        this.deadlines = new long[capacity];
+        Arrays.fill(deadlines, EMPTY);
+        this.resizeAt = (int) (capacity * LOAD_FACTOR);
+        this.cursor = 0;
+    }
+
+    private static int mix(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
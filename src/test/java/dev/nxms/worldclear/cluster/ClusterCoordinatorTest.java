@@ -0,0 +1,41 @@
+package dev.nxms.worldclear.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterCoordinatorTest {
+
+    @Test
+    void keepsStaggerThatFits() {
+        assertEquals(5000L, ClusterCoordinator.fitStagger(5000L, 12, 60_000L));
+    }
+
+    @Test
+    void shrinksStaggerThatWrapsAround() {
+        assertEquals(2000L, ClusterCoordinator.fitStagger(5000L, 24, 60_000L));
+        assertEquals(1000L, ClusterCoordinator.fitStagger(5000L, 100, 60_000L));
+    }
+
+    @Test
+    void slotsOfAllServersAndSchedulesDontCollide() {
+        int schedules = 2;
+        int nodes = 12;
+        long interval = 60_000L;
+        long stagger = ClusterCoordinator.fitStagger(5000L, (long) schedules * nodes, interval);
+        Set<Long> clearTimes = new HashSet<>();
+        for (int node = 0; node < nodes; node++) {
+            ClusterCoordinator coordinator = new ClusterCoordinator(null, new LocalTransport("slots"),
+                    "server-" + node, node, nodes, stagger / 1000L);
+            for (int schedule = 0; schedule < schedules; schedule++) {
+                long offset = coordinator.getSlotOffsetSeconds(schedule) * 1000L;
+                long clearAt = coordinator.getNextClearTime(interval, offset, 0L, 1_000_000L);
+                assertTrue(clearTimes.add(clearAt / 1000L), "slot of server " + node + " collides");
+            }
+        }
+    }
+}
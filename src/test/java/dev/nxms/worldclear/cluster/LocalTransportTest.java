@@ -0,0 +1,62 @@
+package dev.nxms.worldclear.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalTransportTest {
+
+    @Test
+    void deliversToOtherMembersOnly() throws IOException {
+        List<byte[]> first = new ArrayList<>();
+        List<byte[]> second = new ArrayList<>();
+        List<byte[]> other = new ArrayList<>();
+        LocalTransport a = new LocalTransport("members");
+        LocalTransport b = new LocalTransport("members");
+        LocalTransport c = new LocalTransport("other");
+        a.open(first::add);
+        b.open(second::add);
+        c.open(other::add);
+        try {
+            a.send(new ClusterMessage(ClusterMessage.Type.CLEAR, "server-1", 1234L).encode());
+
+            assertTrue(first.isEmpty());
+            assertTrue(other.isEmpty());
+            assertEquals(1, second.size());
+            assertEquals(new ClusterMessage(ClusterMessage.Type.CLEAR, "server-1", 1234L),
+                    ClusterMessage.decode(second.get(0)));
+        } finally {
+            a.close();
+            b.close();
+            c.close();
+        }
+    }
+
+    @Test
+    void stopsDeliveringAfterClose() {
+        List<byte[]> received = new ArrayList<>();
+        LocalTransport a = new LocalTransport("closing");
+        LocalTransport b = new LocalTransport("closing");
+        a.open(payload -> { });
+        b.open(received::add);
+        b.close();
+        a.send(new ClusterMessage(ClusterMessage.Type.CLEAR, "server-1", 0L).encode());
+        a.close();
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void ignoresOtherVersions() throws IOException {
+        byte[] payload = new ClusterMessage(ClusterMessage.Type.CLEAR, "server-1", 0L).encode();
+        payload[0]++;
+
+        assertNull(ClusterMessage.decode(payload));
+    }
+}
@@ -0,0 +1,139 @@
+package dev.nxms.worldclear.deepclean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Writes entity chunk NBT for tests, as the server saves it.
+ */
+final class ChunkNbt {
+
+    private ChunkNbt() {
+    }
+
+    /**
+     * Writes an entity chunk holding the given entities.
+     *
+     * @param entities payloads of the entity compounds, from {@link #item} and {@link #mob}
+     * @return uncompressed chunk NBT
+     */
+    static byte[] chunk(byte[]... entities) {
+        return write(out -> {
+            out.writeByte(10);
+            out.writeUTF("");
+            out.writeByte(3);
+            out.writeUTF("DataVersion");
+            out.writeInt(3955);
+            out.writeByte(11);
+            out.writeUTF("Position");
+            out.writeInt(2);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(9);
+            out.writeUTF("Entities");
+            out.writeByte(10);
+            out.writeInt(entities.length);
+            for (byte[] entity : entities) {
+                out.write(entity);
+            }
+            out.writeByte(0);
+        });
+    }
+
+    /**
+     * Writes a dropped item.
+     *
+     * @param material id of the stack
+     * @param age saved age
+     * @param id uuid of the item
+     * @param stackTag persistent data key of the stack, or null for none
+     * @return entity compound payload
+     */
+    static byte[] item(String material, short age, UUID id, String stackTag) {
+        return write(out -> {
+            position(out);
+            out.writeByte(8);
+            out.writeUTF("id");
+            out.writeUTF("minecraft:item");
+            out.writeByte(2);
+            out.writeUTF("Age");
+            out.writeShort(age);
+            out.writeByte(11);
+            out.writeUTF("UUID");
+            out.writeInt(4);
+            out.writeInt((int) (id.getMostSignificantBits() >>> 32));
+            out.writeInt((int) id.getMostSignificantBits());
+            out.writeInt((int) (id.getLeastSignificantBits() >>> 32));
+            out.writeInt((int) id.getLeastSignificantBits());
+            out.writeByte(10);
+            out.writeUTF("Item");
+            out.writeByte(8);
+            out.writeUTF("id");
+            out.writeUTF(material);
+            out.writeByte(3);
+            out.writeUTF("count");
+            out.writeInt(5);
+            if (stackTag != null) {
+                out.writeByte(10);
+                out.writeUTF("components");
+                out.writeByte(10);
+                out.writeUTF("minecraft:custom_data");
+                out.writeByte(10);
+                out.writeUTF("PublicBukkitValues");
+                out.writeByte(1);
+                out.writeUTF(stackTag);
+                out.writeByte(1);
+                out.writeByte(0);
+                out.writeByte(0);
+                out.writeByte(0);
+            }
+            out.writeByte(0);
+            out.writeByte(0);
+        });
+    }
+
+    /**
+     * Writes a zombie.
+     *
+     * @return entity compound payload
+     */
+    static byte[] mob() {
+        return write(out -> {
+            position(out);
+            out.writeByte(8);
+            out.writeUTF("id");
+            out.writeUTF("minecraft:zombie");
+            out.writeByte(5);
+            out.writeUTF("Health");
+            out.writeFloat(20.0F);
+            out.writeByte(0);
+        });
+    }
+
+    private static void position(DataOutputStream out) throws IOException {
+        out.writeByte(9);
+        out.writeUTF("Pos");
+        out.writeByte(6);
+        out.writeInt(3);
+        out.writeDouble(1.5);
+        out.writeDouble(64.0);
+        out.writeDouble(-3.5);
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
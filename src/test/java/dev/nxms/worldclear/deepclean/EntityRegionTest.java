@@ -0,0 +1,142 @@
+package dev.nxms.worldclear.deepclean;
+
+import dev.nxms.worldclear.filter.ClearFilter;
+import dev.nxms.worldclear.tracker.ItemTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EntityRegionTest {
+
+    private static final int SECTOR = 4096;
+
+    private final ClearFilter filter = ClearFilter.compile(null, Logger.getLogger(EntityRegionTest.class.getName()));
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void ignoresOtherFiles() {
+        assertNull(EntityRegion.of(folder.resolve("r.0.0.mcc")));
+        assertNull(EntityRegion.of(folder.resolve("level.dat")));
+    }
+
+    @Test
+    void scanLeavesFileUnchanged() throws IOException {
+        Path file = writeRegion(folder.resolve("r.0.0.mca"), ChunkNbt.chunk(item(), item(), ChunkNbt.mob()),
+                ChunkNbt.chunk(ChunkNbt.mob()), ChunkNbt.chunk(item()));
+        byte[] before = Files.readAllBytes(file);
+
+        EntityRegion.Result result = EntityRegion.of(file).process(new NbtItemStripper(filter, null), key -> false,
+                false, () -> false);
+
+        assertArrayEquals(new long[]{ItemTracker.chunkKey(0, 0), ItemTracker.chunkKey(2, 0)}, result.chunks());
+        assertEquals(3, result.items());
+        assertEquals(0, result.unreadable());
+        assertArrayEquals(before, Files.readAllBytes(file));
+    }
+
+    @Test
+    void repackKeepsOtherEntitiesAndChunks() throws IOException {
+        byte[] mob = ChunkNbt.mob();
+        byte[] untouched = ChunkNbt.chunk(ChunkNbt.mob());
+        Path file = writeRegion(folder.resolve("r.-1.2.mca"), ChunkNbt.chunk(item(), mob, item()), untouched,
+                ChunkNbt.chunk(item()));
+        EntityRegion region = EntityRegion.of(file);
+
+        EntityRegion.Result result = region.process(new NbtItemStripper(filter, null), key -> false, true, () -> false);
+
+        assertEquals(3, result.items());
+        assertEquals(0, Files.size(file) % SECTOR);
+        assertArrayEquals(ChunkNbt.chunk(mob), readChunk(file, 0));
+        assertArrayEquals(untouched, readChunk(file, 1));
+        assertArrayEquals(ChunkNbt.chunk(), readChunk(file, 2));
+        assertEquals(0, region.process(new NbtItemStripper(filter, null), key -> false, false, () -> false).items());
+    }
+
+    @Test
+    void repackSkipsLoadedChunks() throws IOException {
+        byte[] loaded = ChunkNbt.chunk(item());
+        Path file = writeRegion(folder.resolve("r.0.0.mca"), loaded, ChunkNbt.chunk(item()));
+        long loadedKey = ItemTracker.chunkKey(0, 0);
+
+        EntityRegion.Result result = EntityRegion.of(file).process(new NbtItemStripper(filter, null),
+                key -> key == loadedKey, true, () -> false);
+
+        assertEquals(1, result.items());
+        assertArrayEquals(loaded, readChunk(file, 0));
+        assertArrayEquals(ChunkNbt.chunk(), readChunk(file, 1));
+    }
+
+    @Test
+    void cancelledRepackKeepsFile() throws IOException {
+        Path file = writeRegion(folder.resolve("r.0.0.mca"), ChunkNbt.chunk(item(), ChunkNbt.mob()));
+        byte[] before = Files.readAllBytes(file);
+
+        EntityRegion.Result result = EntityRegion.of(file).process(new NbtItemStripper(filter, null),
+                key -> false, true, () -> true);
+
+        assertEquals(0, result.items());
+        assertEquals(0, result.chunks().length);
+        assertArrayEquals(before, Files.readAllBytes(file));
+        assertFalse(Files.exists(folder.resolve("r.0.0.mca.tmp")));
+    }
+
+    private static byte[] item() {
+        return ChunkNbt.item("minecraft:dirt", (short) 600, UUID.randomUUID(), null);
+    }
+
+    /**
+     * Writes a region file with the given chunks at the first header positions, zlib compressed.
+     */
+    private static Path writeRegion(Path file, byte[]... chunks) throws IOException {
+        ByteArrayOutputStream sectors = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(2 * SECTOR);
+        int sector = 2;
+        for (int i = 0; i < chunks.length; i++) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (DeflaterOutputStream out = new DeflaterOutputStream(compressed)) {
+                out.write(chunks[i]);
+            }
+            int count = (compressed.size() + 5 + SECTOR - 1) / SECTOR;
+            ByteBuffer record = ByteBuffer.allocate(count * SECTOR);
+            record.putInt(compressed.size() + 1).put((byte) 2).put(compressed.toByteArray());
+            sectors.write(record.array());
+            header.putInt(i * 4, sector << 8 | count);
+            header.putInt(SECTOR + i * 4, 1);
+            sector += count;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(header.array());
+        sectors.writeTo(bytes);
+        return Files.write(file, bytes.toByteArray());
+    }
+
+    private static byte[] readChunk(Path file, int index) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        int start = (data.getInt(index * 4) >>> 8) * SECTOR;
+        int length = data.getInt(start);
+        assertEquals(2, data.get(start + 4));
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data.array(), start + 5,
+                length - 1))) {
+            return in.readAllBytes();
+        }
+    }
+}
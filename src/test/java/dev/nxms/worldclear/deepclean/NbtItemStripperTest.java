@@ -0,0 +1,100 @@
+package dev.nxms.worldclear.deepclean;
+
+import dev.nxms.worldclear.filter.ClearFilter;
+import dev.nxms.worldclear.tracker.LootProtection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Item;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NbtItemStripperTest {
+
+    private static final Logger LOGGER = Logger.getLogger(NbtItemStripperTest.class.getName());
+
+    private final ClearFilter defaults = ClearFilter.compile(null, LOGGER);
+
+    @Test
+    void copiesChunkWithoutItemsUnchanged() throws IOException {
+        byte[] chunk = ChunkNbt.chunk(ChunkNbt.mob(), ChunkNbt.mob());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, strip(new NbtItemStripper(defaults, null), chunk, out));
+        assertArrayEquals(chunk, out.toByteArray());
+    }
+
+    @Test
+    void leavesOutItemsAndKeepsEverythingElse() throws IOException {
+        byte[] mob = ChunkNbt.mob();
+        byte[] chunk = ChunkNbt.chunk(item((short) 600), mob, item((short) 20));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, strip(new NbtItemStripper(defaults, null), chunk, out));
+        assertArrayEquals(ChunkNbt.chunk(mob), out.toByteArray());
+    }
+
+    @Test
+    void keepsItemsYoungerThanMinimumAge() throws IOException {
+        YamlConfiguration section = new YamlConfiguration();
+        section.set("min-age-ticks", 200);
+        ClearFilter filter = ClearFilter.compile(section, LOGGER);
+        byte[] young = item((short) 100);
+        byte[] chunk = ChunkNbt.chunk(young, item((short) 300), item(Short.MIN_VALUE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, strip(new NbtItemStripper(filter, null), chunk, out));
+        assertArrayEquals(ChunkNbt.chunk(young), out.toByteArray());
+    }
+
+    @Test
+    void keepsProtectedItems() throws IOException {
+        UUID thrown = UUID.randomUUID();
+        LootProtection protection = new LootProtection();
+        protection.configure(0, 60);
+        protection.onThrow(itemWithId(thrown));
+        byte[] kept = ChunkNbt.item("minecraft:dirt", (short) 600, thrown, null);
+        byte[] chunk = ChunkNbt.chunk(kept, item((short) 600));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(1, strip(new NbtItemStripper(defaults, protection), chunk, out));
+        assertArrayEquals(ChunkNbt.chunk(kept), out.toByteArray());
+    }
+
+    @Test
+    void keepsItemsWithProtectedStackTags() throws IOException {
+        YamlConfiguration section = new YamlConfiguration();
+        section.set("protected-tags", List.of("shop:display"));
+        ClearFilter filter = ClearFilter.compile(section, LOGGER);
+        byte[] kept = ChunkNbt.item("minecraft:dirt", (short) 600, UUID.randomUUID(), "shop:display");
+        byte[] chunk = ChunkNbt.chunk(kept, ChunkNbt.item("minecraft:dirt", (short) 600, UUID.randomUUID(),
+                "shop:other"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(1, strip(new NbtItemStripper(filter, null), chunk, out));
+        assertArrayEquals(ChunkNbt.chunk(kept), out.toByteArray());
+    }
+
+    private static int strip(NbtItemStripper stripper, byte[] chunk, ByteArrayOutputStream out) throws IOException {
+        return stripper.strip(new DataInputStream(new ByteArrayInputStream(chunk)), new DataOutputStream(out));
+    }
+
+    private static byte[] item(short age) {
+        return ChunkNbt.item("minecraft:dirt", age, UUID.randomUUID(), null);
+    }
+
+    private static Item itemWithId(UUID id) {
+        return (Item) Proxy.newProxyInstance(Item.class.getClassLoader(), new Class<?>[]{Item.class},
+                (proxy, method, args) -> method.getName().equals("getUniqueId") ? id : null);
+    }
+}
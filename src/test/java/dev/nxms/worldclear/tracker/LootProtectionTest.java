@@ -0,0 +1,60 @@
+package dev.nxms.worldclear.tracker;
+
+import org.bukkit.entity.Item;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LootProtectionTest {
+
+    @Test
+    void protectedItemMergedIntoUnprotectedStackStaysProtected() {
+        LootProtection protection = protection();
+        Item source = item(UUID.randomUUID());
+        Item target = item(UUID.randomUUID());
+        protection.onThrow(source);
+
+        protection.onMerge(source, target);
+
+        assertTrue(protection.isProtected(target.getUniqueId()));
+        assertFalse(protection.isProtected(source.getUniqueId()));
+    }
+
+    @Test
+    void unprotectedItemMergedIntoProtectedStackKeepsItsProtection() {
+        LootProtection protection = protection();
+        Item source = item(UUID.randomUUID());
+        Item target = item(UUID.randomUUID());
+        protection.onThrow(target);
+
+        protection.onMerge(source, target);
+
+        assertTrue(protection.isProtected(target.getUniqueId()));
+    }
+
+    @Test
+    void forgottenItemIsNotProtected() {
+        LootProtection protection = protection();
+        Item item = item(UUID.randomUUID());
+        protection.onThrow(item);
+
+        protection.forget(item.getUniqueId());
+
+        assertFalse(protection.isProtected(item.getUniqueId()));
+    }
+
+    private static LootProtection protection() {
+        LootProtection protection = new LootProtection();
+        protection.configure(0, 60);
+        return protection;
+    }
+
+    private static Item item(UUID id) {
+        return (Item) Proxy.newProxyInstance(Item.class.getClassLoader(), new Class<?>[]{Item.class},
+                (proxy, method, args) -> method.getName().equals("getUniqueId") ? id : null);
+    }
+}
@@ -0,0 +1,50 @@
+package dev.nxms.worldclear.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidExpirySetTest {
+
+    @Test
+    void reportsAbsentDeadline() {
+        UuidExpirySet set = new UuidExpirySet();
+
+        assertEquals(Long.MIN_VALUE, set.getDeadline(UUID.randomUUID(), Long.MIN_VALUE));
+    }
+
+    @Test
+    void expiresEntriesAcrossTheSignOfNanoTime() {
+        UuidExpirySet set = new UuidExpirySet();
+        UUID id = UUID.randomUUID();
+        set.add(id, Long.MIN_VALUE + 10);
+
+        assertTrue(set.contains(id, Long.MAX_VALUE - 10));
+        assertFalse(set.contains(id, Long.MIN_VALUE + 20));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    void keepsEntriesFindableWhileGrowingAndRemoving() {
+        UuidExpirySet set = new UuidExpirySet();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            set.add(id, i % 2 == 0 ? 100 : 1000);
+        }
+
+        assertEquals(500, set.removeExpired(500, 8192));
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i % 2 != 0, set.contains(ids.get(i), 500));
+        }
+        assertTrue(set.remove(ids.get(1)));
+        assertFalse(set.contains(ids.get(1), 500));
+    }
+}